@@ -272,6 +272,10 @@ public class ScnWidget extends Widget {
 						x += tile.getRegionWidth();
 					}
 
+					sceneBatch.enableBlending();
+				} else if (scn.getStreamedBackground() != null) {
+					sceneBatch.disableBlending();
+					scn.getStreamedBackground().draw(sceneBatch, null);
 					sceneBatch.enableBlending();
 				}
 
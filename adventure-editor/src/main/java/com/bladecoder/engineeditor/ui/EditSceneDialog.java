@@ -67,6 +67,8 @@ public class EditSceneDialog extends EditModelDialog<World, Scene> {
 	private InputPanel stopWhenLeaving;
 	private InputPanel sceneSize;
 	private InputPanel walkzone;
+	private InputPanel navMesh;
+	private InputPanel streamBackground;
 
 	@SuppressWarnings("unchecked")
 	public EditSceneDialog(Skin skin, World parent, Scene e) {
@@ -106,6 +108,14 @@ public class EditSceneDialog extends EditModelDialog<World, Scene> {
 		walkzone = InputPanelFactory.createInputPanel(skin, "Walkzone", "The initial walkzone.", Type.WALKZONE_ACTOR,
 				false);
 
+		navMesh = InputPanelFactory.createInputPanel(skin, "Navmesh",
+				"Use a navigation mesh to find paths. Faster for big walkzones or with a lot of obstacles.",
+				Param.Type.BOOLEAN, true, "false");
+
+		streamBackground = InputPanelFactory.createInputPanel(skin, "Stream Background",
+				"Only loads the background atlas pages near the camera. For backgrounds several screens wide packed in several pages.",
+				Param.Type.BOOLEAN, true, "false");
+
 		bgImage = new Image();
 		bgImage.setScaling(Scaling.fit);
 		infoContainer = new Container<Image>(bgImage);
@@ -139,7 +149,7 @@ public class EditSceneDialog extends EditModelDialog<World, Scene> {
 		}
 
 		init(parent, e, new InputPanel[] { id, backgroundAtlas, backgroundRegion, depthVector, state, sceneSize, music,
-				loopMusic, volumeMusic, initialMusicDelay, repeatMusicDelay, stopWhenLeaving, walkzone });
+				loopMusic, volumeMusic, initialMusicDelay, repeatMusicDelay, stopWhenLeaving, walkzone, navMesh, streamBackground });
 	}
 
 	private void showBgImage(String r) {
@@ -250,6 +260,8 @@ public class EditSceneDialog extends EditModelDialog<World, Scene> {
 		e.setSceneSize(Param.parseVector2(sceneSize.getText()));
 
 		e.setWalkZone(walkzone.getText());
+		e.setNavMesh(Boolean.parseBoolean(navMesh.getText()));
+		e.setStreamBackground(Boolean.parseBoolean(streamBackground.getText()));
 
 		parent.addScene(e);
 
@@ -295,6 +307,8 @@ public class EditSceneDialog extends EditModelDialog<World, Scene> {
 			sceneSize.setText(Param.toStringParam(e.getSceneSize()));
 
 		walkzone.setText(e.getWalkZone());
+		navMesh.setText(Boolean.toString(e.isNavMesh()));
+		streamBackground.setText(Boolean.toString(e.isStreamBackground()));
 	}
 
 	@Override
@@ -185,6 +185,11 @@ public class SpineRenderer extends AnimationRenderer {
 		return result;
 	}
 
+	@Override
+	public boolean isAnimating() {
+		return !complete || secondaryAnimation != null;
+	}
+
 	@Override
 	public void update(float delta) {
 		if (complete) {
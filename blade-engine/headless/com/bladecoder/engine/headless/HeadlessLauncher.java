@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.headless;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.ui.TesterBot;
+import com.bladecoder.engine.util.Config;
+import com.bladecoder.engine.util.EngineLogger;
+import com.bladecoder.engine.util.NullGL;
+import com.bladecoder.engine.util.WorldSimulator;
+
+/**
+ * Runs a game without window, GL or sound using a fixed timestep. The game
+ * runs as fast as possible, usually many times faster than real time.
+ * 
+ * Run with: gradlew :blade-engine:headless --args="-adv-dir
+ * path/to/assets -t scene -time 600 -bot"
+ * 
+ * @author rgarcia
+ */
+public class HeadlessLauncher implements ApplicationListener {
+	/** Real time spent in every render call running steps */
+	private static final long SLICE_NANOS = 15000000;
+
+	private String advDir;
+	private String chapter;
+	private String testScene;
+	private String gameState;
+	private String forceRes;
+	private boolean debug;
+	private boolean bot;
+	private float time = 600;
+	private int fps = 60;
+
+	private World world;
+	private WorldSimulator simulator;
+
+	/** Process exit status. Not 0 when the game fails, for CI scripts. */
+	private int exitStatus = 0;
+
+	public void parseParams(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String s = args[i];
+			if (s.equals("-adv-dir")) {
+				if (i + 1 < args.length) {
+					i++;
+					advDir = args[i];
+				}
+			} else if (s.equals("-t")) {
+				if (i + 1 < args.length) {
+					i++;
+					testScene = args[i];
+				}
+			} else if (s.equals("-chapter")) {
+				if (i + 1 < args.length) {
+					i++;
+					chapter = args[i];
+				}
+			} else if (s.equals("-l")) {
+				if (i + 1 < args.length) {
+					i++;
+					gameState = args[i];
+				}
+			} else if (s.equals("-res")) {
+				if (i + 1 < args.length) {
+					i++;
+					forceRes = args[i];
+				}
+			} else if (s.equals("-time")) {
+				if (i + 1 < args.length) {
+					i++;
+					time = Float.parseFloat(args[i]);
+				}
+			} else if (s.equals("-fps")) {
+				if (i + 1 < args.length) {
+					i++;
+					fps = Integer.parseInt(args[i]);
+				}
+			} else if (s.equals("-bot")) {
+				bot = true;
+			} else if (s.equals("-d")) {
+				debug = true;
+			} else if (s.equals("-h")) {
+				usage();
+			} else {
+				System.out.println("Unrecognized parameter: " + s);
+				usage();
+			}
+		}
+	}
+
+	public void usage() {
+		System.out.println("Usage:\n"
+				+ "-adv-dir folder\tThe game assets folder\n"
+				+ "-chapter chapter\tLoads the selected chapter\n"
+				+ "-t scene_name\tStart test mode for the scene\n"
+				+ "-l game_state\tLoad the previusly saved game state\n"
+				+ "-res width\tForce the resolution width\n"
+				+ "-time seconds\tSimulated time to run (600 by default)\n"
+				+ "-fps n\tSimulated frames per second (60 by default)\n"
+				+ "-bot\tPlay the game with the tester bot\n"
+				+ "-d\tShow debug messages\n");
+
+		System.exit(0);
+	}
+
+	@Override
+	public void create() {
+		// there is no GL context in the headless backend
+		Gdx.gl = Gdx.gl20 = NullGL.create();
+
+		if (debug)
+			EngineLogger.setDebug();
+		else
+			EngineLogger.setDebugLevel(Application.LOG_ERROR);
+
+		EngineAssetManager.setAssetFolder(advDir);
+		Config.getInstance().load();
+
+		if (forceRes != null)
+			EngineAssetManager.getInstance().forceResolution(forceRes);
+
+		world = new World();
+
+		try {
+			world.loadWorldDesc();
+
+			if (gameState != null)
+				world.loadGameState(gameState);
+			else
+				world.loadChapter(chapter, testScene, testScene != null);
+		} catch (Exception e) {
+			EngineLogger.error("Error loading game: " + e.getMessage(), e);
+			exitStatus = 1;
+			Gdx.app.exit();
+			return;
+		}
+
+		simulator = new WorldSimulator(world, 1f / fps);
+
+		if (bot) {
+			final TesterBot testerBot = new TesterBot(world);
+			testerBot.setEnabled(true);
+
+			simulator.setStepListener(new WorldSimulator.StepListener() {
+				@Override
+				public void step(World w, float delta) {
+					testerBot.update(delta);
+				}
+			});
+		}
+	}
+
+	@Override
+	public void render() {
+		if (simulator == null)
+			return;
+
+		long t0 = System.nanoTime();
+
+		// run steps during a slice and return to let the app process the posted
+		// runnables
+		while (System.nanoTime() - t0 < SLICE_NANOS) {
+			if (world.isDisposed() || simulator.getSimulatedTime() >= time || EngineLogger.lastError != null) {
+				finish();
+				return;
+			}
+
+			simulator.step();
+		}
+	}
+
+	private void finish() {
+		if (EngineLogger.lastError != null) {
+			System.out.println("ERROR: " + EngineLogger.lastError);
+			exitStatus = 1;
+		}
+
+		System.out.println(simulator.getSummary());
+
+		simulator = null;
+		Gdx.app.exit();
+	}
+
+	@Override
+	public void resize(int width, int height) {
+	}
+
+	@Override
+	public void pause() {
+	}
+
+	@Override
+	public void resume() {
+	}
+
+	@Override
+	public void dispose() {
+		if (world != null)
+			world.dispose();
+
+		// the app has finished, the status is only set when there are errors
+		if (exitStatus != 0)
+			System.exit(exitStatus);
+	}
+
+	public static void main(String[] args) {
+		HeadlessLauncher launcher = new HeadlessLauncher();
+		launcher.parseParams(args);
+
+		HeadlessApplicationConfiguration cfg = new HeadlessApplicationConfiguration();
+		cfg.updatesPerSecond = 60;
+
+		new HeadlessApplication(launcher, cfg);
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.math.Polygon;
+import com.bladecoder.engine.model.BaseActor;
+import com.bladecoder.engine.model.ObstacleActor;
+import com.bladecoder.engine.model.WalkZoneActor;
+import com.bladecoder.engine.util.PolygonUtils;
+
+/**
+ * Synthetic walkzone and obstacles for the benchmarks.
+ *
+ * The walkzone is a clockwise star with alternating convex and concave
+ * vertices. The obstacles are squares in a grid inside the walkzone. The
+ * geometry only depends on the parameters, so the results are comparable
+ * between runs.
+ *
+ * @author rgarcia
+ */
+public class BenchmarkScene {
+	/** Length of the walkzone edges */
+	private static final float EDGE_LENGTH = 20;
+
+	private static final long SEED = 1234;
+
+	public final WalkZoneActor walkZone = new WalkZoneActor();
+	public final List<BaseActor> actors = new ArrayList<>();
+	public final List<Polygon> obstacles = new ArrayList<>();
+
+	private final float radius;
+
+	public BenchmarkScene(int numVertices, int numObstacles) {
+		initGdx();
+
+		radius = Math.max(1000, EDGE_LENGTH * numVertices / (float) (2 * Math.PI));
+
+		float[] verts = new float[numVertices * 2];
+
+		for (int i = 0; i < numVertices; i++) {
+			double angle = -2 * Math.PI * i / numVertices;
+			float r = i % 2 == 0 ? radius : radius * 0.9f;
+
+			verts[i * 2] = (float) (r * Math.cos(angle));
+			verts[i * 2 + 1] = (float) (r * Math.sin(angle));
+		}
+
+		walkZone.setId("walkzone");
+		walkZone.getBBox().setVertices(verts);
+		actors.add(walkZone);
+
+		// grid in the square inscribed in the walkzone
+		int cols = (int) Math.ceil(Math.sqrt(numObstacles));
+		float side = radius * 1.2f;
+		float cell = side / Math.max(cols, 1);
+		float size = cell * 0.4f;
+
+		for (int i = 0; i < numObstacles; i++) {
+			float x = -side / 2 + (i % cols + 0.5f) * cell;
+			float y = -side / 2 + (i / cols + 0.5f) * cell;
+
+			ObstacleActor o = new ObstacleActor();
+			o.setId("obstacle" + i);
+			o.getBBox().setVertices(new float[] { x - size / 2, y - size / 2, x - size / 2, y + size / 2,
+					x + size / 2, y + size / 2, x + size / 2, y - size / 2 });
+
+			actors.add(o);
+			obstacles.add(o.getBBox());
+		}
+	}
+
+	/**
+	 * @return count xy pairs of random points inside the walkzone and outside the
+	 *         obstacles.
+	 */
+	public float[] createWalkablePoints(int count) {
+		Random random = new Random(SEED);
+		float[] points = new float[count * 2];
+		int n = 0;
+
+		while (n < count) {
+			float x = (random.nextFloat() * 2 - 1) * radius;
+			float y = (random.nextFloat() * 2 - 1) * radius;
+
+			if (isWalkable(x, y)) {
+				points[n * 2] = x;
+				points[n * 2 + 1] = y;
+				n++;
+			}
+		}
+
+		return points;
+	}
+
+	private boolean isWalkable(float x, float y) {
+		if (!PolygonUtils.isPointInside(walkZone.getBBox(), x, y, false))
+			return false;
+
+		for (Polygon o : obstacles) {
+			if (PolygonUtils.isPointInside(o, x, y, true))
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * The engine logs with Gdx.app.
+	 */
+	private static void initGdx() {
+		if (Gdx.app == null)
+			new HeadlessApplication(new ApplicationAdapter() {
+			});
+	}
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bladecoder.engine.navmeshpathfinder.NavMeshGraph;
+import com.bladecoder.engine.pathfinder.WalkZonePathFinder;
+import com.bladecoder.engine.polygonalpathfinder.PolygonalNavGraph;
+
+/**
+ * Time to create the navigation graph of a scene.
+ *
+ * @author rgarcia
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBuildBenchmark {
+	@Param({ "50", "500", "5000" })
+	public int vertices;
+
+	@Param({ "0", "10", "100" })
+	public int obstacles;
+
+	@Param({ "polygonal", "navmesh" })
+	public String backend;
+
+	private BenchmarkScene scene;
+
+	@Setup
+	public void setup() {
+		scene = new BenchmarkScene(vertices, obstacles);
+	}
+
+	@Benchmark
+	public Object createInitialGraph() {
+		if ("navmesh".equals(backend)) {
+			NavMeshGraph graph = new NavMeshGraph();
+			graph.createInitialGraph(scene.walkZone, scene.actors);
+
+			// the mesh is created when needed
+			return graph.getNavMesh();
+		}
+
+		WalkZonePathFinder graph = new PolygonalNavGraph();
+		graph.createInitialGraph(scene.walkZone, scene.actors);
+
+		return graph;
+	}
+}
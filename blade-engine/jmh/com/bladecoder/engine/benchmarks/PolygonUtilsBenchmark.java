@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Vector2;
+import com.bladecoder.engine.util.PolygonUtils;
+
+/**
+ * The geometry tests used by the pathfinders for every click.
+ *
+ * @author rgarcia
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolygonUtilsBenchmark {
+	private static final int NUM_POINTS = 1024;
+
+	@Param({ "50", "500", "5000" })
+	public int vertices;
+
+	private Polygon walkZone;
+	private float[] points;
+	private int next;
+
+	private final Vector2 p1 = new Vector2();
+	private final Vector2 p2 = new Vector2();
+
+	@Setup
+	public void setup() {
+		BenchmarkScene scene = new BenchmarkScene(vertices, 0);
+
+		walkZone = scene.walkZone.getBBox();
+		points = scene.createWalkablePoints(NUM_POINTS);
+	}
+
+	private int nextPoint() {
+		int i = next;
+		next = (next + 2) % points.length;
+
+		return i;
+	}
+
+	@Benchmark
+	public boolean isPointInside() {
+		int i = nextPoint();
+
+		return PolygonUtils.isPointInside(walkZone, points[i], points[i + 1], true);
+	}
+
+	@Benchmark
+	public boolean inLineOfSight() {
+		int i = nextPoint();
+		int j = nextPoint();
+
+		p1.set(points[i], points[i + 1]);
+		p2.set(points[j], points[j + 1]);
+
+		return PolygonUtils.inLineOfSight(p1, p2, walkZone, false);
+	}
+
+	@Benchmark
+	public boolean lineSegmentsCross() {
+		int i = nextPoint();
+		int j = nextPoint();
+		int k = nextPoint();
+		int l = nextPoint();
+
+		return PolygonUtils.lineSegmentsCross(points[i], points[i + 1], points[j], points[j + 1], points[k],
+				points[k + 1], points[l], points[l + 1]);
+	}
+}
@@ -16,6 +16,7 @@
 package com.bladecoder.engine.anim;
 
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonValue;
@@ -37,32 +38,53 @@ import java.util.ArrayList;
  */
 public class WalkTween extends SpritePosTween implements Serializable {
 
-    private ArrayList<Vector2> walkingPath;
+    /**
+     * The points of the path as xy pairs.
+     */
+    private FloatArray walkingPath;
     private int currentStep = 0;
     private float speed = 0;
 
     private ActionCallback walkCb;
 
+    private final Vector2 p0 = new Vector2();
+    private final Vector2 pf = new Vector2();
+
     public WalkTween() {
     }
 
     public void start(CharacterActor target, ArrayList<Vector2> walkingPath, float speed, ActionCallback cb) {
+        FloatArray path = new FloatArray(walkingPath.size() * 2);
+
+        for (Vector2 p : walkingPath)
+            path.add(p.x, p.y);
+
+        start(target, path, speed, cb);
+    }
+
+    /**
+     * Starts the walk. The path buffer is used directly, so it must not be
+     * modified by the caller while walking. Midpoints can be inserted in the
+     * path when the scale changes.
+     *
+     * @param walkingPath The points of the path as xy pairs.
+     */
+    public void start(CharacterActor target, FloatArray walkingPath, float speed, ActionCallback cb) {
         this.target = target;
         this.walkingPath = walkingPath;
         this.speed = speed;
         this.currentStep = 0;
-
-        if (cb != null) {
-            walkCb = cb;
-        }
+        this.walkCb = cb;
 
         restart();
         walkToNextStep(target);
     }
 
     private void walkToNextStep(CharacterActor target) {
-        Vector2 p0 = walkingPath.get(currentStep);
-        Vector2 pf = walkingPath.get(currentStep + 1);
+        int idx = currentStep * 2;
+
+        p0.set(walkingPath.get(idx), walkingPath.get(idx + 1));
+        pf.set(walkingPath.get(idx + 2), walkingPath.get(idx + 3));
 
         float s0 = 1.0f;
         float sf = 1.0f;
@@ -75,17 +97,19 @@ public class WalkTween extends SpritePosTween implements Serializable {
         float sdiff = Math.abs(s0 - sf);
         if (sdiff > .05f) {
             // cut the path in two parts if the difference in scale is big
-            Vector2 pi = new Vector2((pf.x + p0.x) / 2, (pf.y + p0.y) / 2);
+            float piX = (pf.x + p0.x) / 2;
+            float piY = (pf.y + p0.y) / 2;
 
             if (EngineLogger.debugMode()) {
                 String debugText = String.format(
                         "WalkTween insert point: sdiff=%.2f, p0=(%.0f,%.0f), pf=(%.0f,%.0f), pi=(%.0f,%.0f)", sdiff,
-                        p0.x, p0.y, pf.x, pf.y, pi.x, pi.y);
+                        p0.x, p0.y, pf.x, pf.y, piX, piY);
 
                 EngineLogger.debug(debugText);
             }
 
-            walkingPath.add(currentStep + 1, pi);
+            walkingPath.insert(idx + 2, piX);
+            walkingPath.insert(idx + 3, piY);
 
             walkToNextStep(target);
             return;
@@ -99,14 +123,18 @@ public class WalkTween extends SpritePosTween implements Serializable {
         float segmentDuration = p0.dst(pf) / (EngineAssetManager.getInstance().getScale() * speed * (s0 + sf) / 2);
 
         start(target, Type.NO_REPEAT, 1, pf.x, pf.y, segmentDuration, InterpolationMode.LINEAR,
-                InterpolationMode.LINEAR, currentStep == walkingPath.size() - 2 ? walkCb : null);
+                InterpolationMode.LINEAR, currentStep == getNumPoints() - 2 ? walkCb : null);
+    }
+
+    private int getNumPoints() {
+        return walkingPath.size / 2;
     }
 
     private void segmentEnded(CharacterActor target) {
 
         currentStep++;
 
-        if (currentStep < walkingPath.size() - 1) {
+        if (currentStep < getNumPoints() - 1) {
             walkToNextStep(target);
         } else { // WALK ENDED
             target.stand();
@@ -121,11 +149,9 @@ public class WalkTween extends SpritePosTween implements Serializable {
     }
 
     public void completeNow(CharacterActor target) {
-        currentStep = walkingPath.size();
-
-        Vector2 p = walkingPath.get(currentStep - 1);
+        currentStep = getNumPoints();
 
-        target.setPosition(p.x, p.y);
+        target.setPosition(walkingPath.get(walkingPath.size - 2), walkingPath.get(walkingPath.size - 1));
         target.stand();
 
         if (walkCb != null) {
@@ -147,7 +173,13 @@ public class WalkTween extends SpritePosTween implements Serializable {
     public void write(Json json) {
         super.write(json);
 
-        json.writeValue("path", walkingPath);
+        json.writeArrayStart("path");
+
+        for (int i = 0; i < walkingPath.size; i++)
+            json.writeValue(walkingPath.get(i));
+
+        json.writeArrayEnd();
+
         json.writeValue("currentStep", currentStep);
         json.writeValue("speed", speed);
 
@@ -158,12 +190,20 @@ public class WalkTween extends SpritePosTween implements Serializable {
         }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void read(Json json, JsonValue jsonData) {
         super.read(json, jsonData);
 
-        walkingPath = json.readValue("path", ArrayList.class, Vector2.class, jsonData);
+        walkingPath = new FloatArray();
+
+        // old savegames store the path as a list of Vector2
+        for (JsonValue v = jsonData.get("path").child; v != null; v = v.next) {
+            if (v.isObject())
+                walkingPath.add(v.getFloat("x"), v.getFloat("y"));
+            else
+                walkingPath.add(v.asFloat());
+        }
+
         currentStep = json.readValue("currentStep", Integer.class, jsonData);
         speed = json.readValue("speed", Float.class, jsonData);
 
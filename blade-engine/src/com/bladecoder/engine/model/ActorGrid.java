@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Uniform grid with the bounding rectangles of the scene actors. Used to only
+ * test the actors near a point when searching the actor under the cursor.
+ *
+ * The actor bounds are not observed. When an actor can have moved, it must be
+ * invalidated and its bounds are compared with the stored ones in the next
+ * query. Only the actors whose cells have changed are moved in the grid.
+ *
+ * @author rgarcia
+ */
+public class ActorGrid {
+	private static final float CELL_SIZE = 256f;
+
+	private final Array<Entry> entries = new Array<>();
+	private final ObjectMap<BaseActor, Entry> entriesByActor = new ObjectMap<>();
+
+	private final LongMap<Array<Entry>> cells = new LongMap<>();
+
+	/** Actors whose bounds must be checked before the next query */
+	private final Array<Entry> dirtyEntries = new Array<>();
+
+	/** The bounds of all the actors must be checked before the next query */
+	private boolean allDirty = true;
+
+	/** To add every actor only once to the query result */
+	private int queryStamp;
+
+	private final Array<BaseActor> result = new Array<>();
+	private final Rectangle tmpRect = new Rectangle();
+
+	public void add(BaseActor a) {
+		if (entriesByActor.containsKey(a))
+			return;
+
+		Entry e = new Entry(a);
+		entries.add(e);
+		entriesByActor.put(a, e);
+		setDirty(e);
+	}
+
+	public void remove(BaseActor a) {
+		Entry e = entriesByActor.remove(a);
+
+		if (e == null)
+			return;
+
+		entries.removeValue(e, true);
+
+		if (e.dirty)
+			dirtyEntries.removeValue(e, true);
+
+		if (e.inGrid)
+			removeFromCells(e);
+	}
+
+	public void clear() {
+		entries.clear();
+		entriesByActor.clear();
+		cells.clear();
+		dirtyEntries.clear();
+	}
+
+	/**
+	 * Must be called when the bounds of the actor can have changed.
+	 */
+	public void invalidate(BaseActor a) {
+		if (allDirty)
+			return;
+
+		Entry e = entriesByActor.get(a);
+
+		if (e != null)
+			setDirty(e);
+	}
+
+	/**
+	 * Must be called when the bounds of any actor can have changed.
+	 */
+	public void invalidate() {
+		allDirty = true;
+	}
+
+	private void setDirty(Entry e) {
+		if (!e.dirty) {
+			e.dirty = true;
+			dirtyEntries.add(e);
+		}
+	}
+
+	/**
+	 * Returns the actors whose bounding rectangle contains the point.
+	 *
+	 * The returned array is reused in the next query.
+	 */
+	public Array<BaseActor> query(float x, float y) {
+		return query(tmpRect.set(x, y, 0, 0));
+	}
+
+	/**
+	 * Returns the actors whose bounding rectangle overlaps the rectangle.
+	 *
+	 * The returned array is reused in the next query.
+	 */
+	public Array<BaseActor> query(Rectangle r) {
+		refresh();
+
+		result.clear();
+		queryStamp++;
+
+		int cx0 = cell(r.x);
+		int cy0 = cell(r.y);
+		int cx1 = cell(r.x + r.width);
+		int cy1 = cell(r.y + r.height);
+
+		for (int cy = cy0; cy <= cy1; cy++) {
+			for (int cx = cx0; cx <= cx1; cx++) {
+				Array<Entry> cell = cells.get(key(cx, cy));
+
+				if (cell == null)
+					continue;
+
+				for (int i = 0; i < cell.size; i++) {
+					Entry e = cell.get(i);
+
+					if (e.queryStamp == queryStamp)
+						continue;
+
+					e.queryStamp = queryStamp;
+
+					if (overlaps(e.bounds, r))
+						result.add(e.actor);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Rectangle.overlaps() doesn't work with empty rectangles.
+	 */
+	private static boolean overlaps(Rectangle a, Rectangle b) {
+		return a.x <= b.x + b.width && a.x + a.width >= b.x && a.y <= b.y + b.height && a.y + a.height >= b.y;
+	}
+
+	private void refresh() {
+		if (allDirty) {
+			allDirty = false;
+
+			for (int i = 0; i < entries.size; i++)
+				update(entries.get(i));
+		} else {
+			for (int i = 0; i < dirtyEntries.size; i++)
+				update(dirtyEntries.get(i));
+		}
+
+		for (int i = 0; i < dirtyEntries.size; i++)
+			dirtyEntries.get(i).dirty = false;
+
+		dirtyEntries.clear();
+	}
+
+	/**
+	 * Computes the actor bounds and moves it in the grid if its cells have
+	 * changed.
+	 */
+	private void update(Entry e) {
+		calcBounds(e.actor, e.bounds);
+
+		int cx0 = cell(e.bounds.x);
+		int cy0 = cell(e.bounds.y);
+		int cx1 = cell(e.bounds.x + e.bounds.width);
+		int cy1 = cell(e.bounds.y + e.bounds.height);
+
+		if (e.inGrid && cx0 == e.cx0 && cy0 == e.cy0 && cx1 == e.cx1 && cy1 == e.cy1)
+			return;
+
+		if (e.inGrid)
+			removeFromCells(e);
+
+		e.cx0 = cx0;
+		e.cy0 = cy0;
+		e.cx1 = cx1;
+		e.cy1 = cy1;
+
+		addToCells(e);
+	}
+
+	private static void calcBounds(BaseActor a, Rectangle out) {
+		if (a instanceof AnchorActor) {
+			out.set(a.getX() - Scene.ANCHOR_RADIUS, a.getY() - Scene.ANCHOR_RADIUS, Scene.ANCHOR_RADIUS * 2,
+					Scene.ANCHOR_RADIUS * 2);
+
+			return;
+		}
+
+		Polygon bbox = a.getBBox();
+
+		if (bbox.getVertices().length < 6)
+			out.set(a.getX(), a.getY(), 0, 0);
+		else
+			out.set(bbox.getBoundingRectangle());
+	}
+
+	private void addToCells(Entry e) {
+		for (int cy = e.cy0; cy <= e.cy1; cy++) {
+			for (int cx = e.cx0; cx <= e.cx1; cx++) {
+				long k = key(cx, cy);
+				Array<Entry> cell = cells.get(k);
+
+				if (cell == null) {
+					cell = new Array<>(false, 4);
+					cells.put(k, cell);
+				}
+
+				cell.add(e);
+			}
+		}
+
+		e.inGrid = true;
+	}
+
+	private void removeFromCells(Entry e) {
+		for (int cy = e.cy0; cy <= e.cy1; cy++) {
+			for (int cx = e.cx0; cx <= e.cx1; cx++) {
+				Array<Entry> cell = cells.get(key(cx, cy));
+
+				if (cell != null)
+					cell.removeValue(e, true);
+			}
+		}
+
+		e.inGrid = false;
+	}
+
+	private static int cell(float v) {
+		return (int) Math.floor(v / CELL_SIZE);
+	}
+
+	private static long key(int cx, int cy) {
+		return ((long) cx << 32) | (cy & 0xffffffffL);
+	}
+
+	private static class Entry {
+		final BaseActor actor;
+		final Rectangle bounds = new Rectangle();
+
+		/** Cells covered by the actor when it was added to the grid */
+		int cx0, cy0, cx1, cy1;
+		boolean inGrid;
+
+		/** In the dirty list */
+		boolean dirty;
+
+		int queryStamp;
+
+		Entry(BaseActor actor) {
+			this.actor = actor;
+		}
+	}
+}
@@ -16,6 +16,7 @@
 package com.bladecoder.engine.model;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Polygon;
 import com.badlogic.gdx.utils.Json.Serializable;
@@ -25,6 +26,22 @@ public interface ActorRenderer extends Serializable, AssetConsumer {
 
 	void update(float delta);
 
+	/**
+	 * @return false if update() has nothing to do until an animation is started.
+	 *         The actors with a renderer not animating are not updated.
+	 */
+	default boolean isAnimating() {
+		return true;
+	}
+
+	/**
+	 * @return the texture used in the next draw or null if it is not known. Used
+	 *         to group the actors by texture.
+	 */
+	default Texture getTexture() {
+		return null;
+	}
+
 	void draw(SpriteBatch batch, float x, float y, float scaleX, float scaleY, float rotation, Color tint);
 
 	float getWidth();
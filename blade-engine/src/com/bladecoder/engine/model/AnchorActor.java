@@ -25,4 +25,9 @@ public class AnchorActor extends BaseActor {
 	@Override
 	public void update(float delta) {
 	}
+
+	@Override
+	public boolean needsUpdate() {
+		return false;
+	}
 }
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
@@ -77,6 +78,16 @@ public class AtlasRenderer extends AnimationRenderer {
 		}
 	}
 
+	@Override
+	public boolean isAnimating() {
+		return faTween != null;
+	}
+
+	@Override
+	public Texture getTexture() {
+		return tex == null ? null : tex.getTexture();
+	}
+
 	public void setFrame(int i) {
 		currentFrameIndex = i;
 		tex = ((AtlasAnimationDesc) currentAnimation).regions.get(i);
@@ -37,6 +37,15 @@ abstract public class BaseActor implements Serializable {
 	private String initScene;
 	protected long dirtyProps = 0L;
 
+	/**
+	 * The state differs from the model, so the actor must be saved in the game
+	 * state.
+	 */
+	private boolean modified = false;
+
+	/** In the scene list of actors to update */
+	boolean awake = false;
+
 	public String getId() {
 		return id;
 	}
@@ -60,6 +69,11 @@ abstract public class BaseActor implements Serializable {
 	public void setVisible(boolean visible) {
 		this.visible = visible;
 		setDirtyProp(DirtyProps.VISIBLE);
+
+		if (scene != null)
+			scene.actorChanged(this);
+
+		wakeUp();
 	}
 
 	public void setScene(Scene s) {
@@ -72,8 +86,41 @@ abstract public class BaseActor implements Serializable {
 
 	abstract public void update(float delta);
 
+	/**
+	 * The scene only updates the actors that need it. When this returns false
+	 * the actor sleeps until wakeUp() is called.
+	 */
+	public boolean needsUpdate() {
+		return true;
+	}
+
+	/**
+	 * Adds the actor to the scene list of actors to update.
+	 */
+	public void wakeUp() {
+		if (scene != null)
+			scene.wakeUp(this);
+	}
+
 	protected void setDirtyProp(DirtyProps dp) {
 		dirtyProps |= (1L << dp.ordinal());
+		modified = true;
+	}
+
+	/**
+	 * Marks the actor to be saved in the game state. Must be called when a state
+	 * not tracked by the DirtyProps changes.
+	 */
+	protected void setModified() {
+		modified = true;
+	}
+
+	/**
+	 * @return false if the actor state is the same as in the model. Then, it
+	 *         isn't saved in the game state.
+	 */
+	public boolean isModified() {
+		return modified;
 	}
 
 	protected boolean isDirty(DirtyProps dp) {
@@ -105,9 +152,19 @@ abstract public class BaseActor implements Serializable {
 		if (x != bbox.getX() || y != bbox.getY()) {
 			bbox.setPosition(x, y);
 			setDirtyProp(DirtyProps.POS);
+			bboxChanged();
 		}
 	}
 
+	/**
+	 * Notifies the scene that the bbox has changed to keep its actor search grid
+	 * and triggers updated.
+	 */
+	protected void bboxChanged() {
+		if (scene != null)
+			scene.actorChanged(this);
+	}
+
 	public String getInitScene() {
 		return initScene;
 	}
@@ -160,5 +217,9 @@ abstract public class BaseActor implements Serializable {
 		visible = json.readValue("visible", boolean.class, visible, jsonData);
 
 		dirtyProps = json.readValue("dirtyProps", long.class, 0L, jsonData);
+
+		// only the modified actors are in the game state
+		if (bjson.getMode() == Mode.STATE)
+			modified = true;
 	}
 }
@@ -17,6 +17,7 @@ package com.bladecoder.engine.model;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.bladecoder.engine.actions.ActionCallback;
@@ -24,12 +25,13 @@ import com.bladecoder.engine.anim.SpritePosTween;
 import com.bladecoder.engine.anim.Tween;
 import com.bladecoder.engine.anim.WalkTween;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.polygonalpathfinder.PathRequest;
 import com.bladecoder.engine.serialization.BladeJson;
 import com.bladecoder.engine.serialization.BladeJson.Mode;
+import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.EngineLogger;
 
 import java.text.MessageFormat;
-import java.util.ArrayList;
 import java.util.HashMap;
 
 public class CharacterActor extends SpriteActor {
@@ -40,6 +42,13 @@ public class CharacterActor extends SpriteActor {
     public final static String DEFAULT_WALK_ANIM = "walk";
     public final static String DEFAULT_TALK_ANIM = "talk";
 
+    /**
+     * Search the paths in a background thread. The walk starts in the next world
+     * update after the path is found.
+     */
+    private static final boolean ASYNC_PATHFINDING = Config.getInstance().getProperty(Config.ASYNC_PATHFINDING,
+            false);
+
     private float walkingSpeed = DEFAULT_WALKING_SPEED;
     private Color textColor;
     private String textStyle;
@@ -51,6 +60,18 @@ public class CharacterActor extends SpriteActor {
 
     private HashMap<String, Dialog> dialogs;
 
+    /**
+     * Path and tween reused in every walk to not create garbage. The path buffer
+     * is used by the walk tween while walking.
+     */
+    private final FloatArray walkingPath = new FloatArray();
+    private WalkTween walkTween;
+
+    /**
+     * Path search in progress when using the async pathfinding.
+     */
+    private PathRequest pathRequest;
+
     public Color getTextColor() {
         return textColor;
     }
@@ -76,6 +97,7 @@ public class CharacterActor extends SpriteActor {
 
     public void setStandAnim(String standAnim) {
         this.standAnim = standAnim;
+        setModified();
     }
 
     public String getWalkAnim() {
@@ -84,6 +106,7 @@ public class CharacterActor extends SpriteActor {
 
     public void setWalkAnim(String walkAnim) {
         this.walkAnim = walkAnim;
+        setModified();
     }
 
     public String getTalkAnim() {
@@ -92,6 +115,7 @@ public class CharacterActor extends SpriteActor {
 
     public void setTalkAnim(String talkAnim) {
         this.talkAnim = talkAnim;
+        setModified();
     }
 
     public Dialog getDialog(String dialog) {
@@ -181,20 +205,20 @@ public class CharacterActor extends SpriteActor {
      * @param cb The action callback
      */
     public void goTo(Vector2 pf, ActionCallback cb, boolean ignoreWalkZone) {
-        EngineLogger.debug(MessageFormat.format("GOTO {0},{1}", pf.x, pf.y));
+        if (EngineLogger.debugMode())
+            EngineLogger.debug(MessageFormat.format("GOTO {0},{1}", pf.x, pf.y));
 
-        Vector2 p0 = new Vector2(getBBox().getX(), getBBox().getY());
+        float x0 = getBBox().getX();
+        float y0 = getBBox().getY();
 
         // stop previous movement
-        if (!tweens.isEmpty()) {
+        if (!tweens.isEmpty() || pathRequest != null) {
             removeTween(SpritePosTween.class);
             stand();
         }
 
-        ArrayList<Vector2> walkingPath;
-
         // Doesn't move if dst is less than 2px
-        if (p0.dst(pf) < 2.0f) {
+        if (Vector2.dst(x0, y0, pf.x, pf.y) < 2.0f) {
             setPosition(pf.x, pf.y);
 
             // call the callback
@@ -206,14 +230,51 @@ public class CharacterActor extends SpriteActor {
         }
 
         if (scene.getWalkZone() != null && !ignoreWalkZone) {
-            walkingPath = scene.getPolygonalNavGraph().findPath(p0.x, p0.y, pf.x, pf.y);
+            if (ASYNC_PATHFINDING) {
+                goToAsync(x0, y0, pf, cb);
+                return;
+            }
+
+            scene.getPathFinder().findPath(x0, y0, pf.x, pf.y, walkingPath);
         } else {
-            walkingPath = new ArrayList<>(2);
-            walkingPath.add(p0);
-            walkingPath.add(new Vector2(pf));
+            walkingPath.clear();
+            walkingPath.add(x0, y0, pf.x, pf.y);
         }
 
-        if (walkingPath == null || walkingPath.isEmpty()) {
+        startWalk(cb);
+    }
+
+    /**
+     * Searches the path in the background and starts the walk animation while
+     * searching.
+     */
+    private void goToAsync(float x0, float y0, Vector2 pf, final ActionCallback cb) {
+        PathRequest request = scene.getWorld().getAsyncPathFinder().findPath(scene.getPathFinder(), x0, y0,
+                pf.x, pf.y, new PathRequest.PathListener() {
+                    @Override
+                    public void pathFound(FloatArray path) {
+                        pathRequest = null;
+
+                        walkingPath.clear();
+                        walkingPath.addAll(path);
+
+                        if (walkingPath.size == 0)
+                            stand();
+
+                        startWalk(cb);
+                    }
+                });
+
+        startWalkAnim(new Vector2(x0, y0), pf);
+
+        pathRequest = request;
+    }
+
+    /**
+     * Starts the walk tween with the path in 'walkingPath'.
+     */
+    private void startWalk(ActionCallback cb) {
+        if (walkingPath.size == 0) {
             // call the callback even when the path is empty
             if (cb != null) {
                 cb.resume();
@@ -222,10 +283,24 @@ public class CharacterActor extends SpriteActor {
             return;
         }
 
-        WalkTween t = new WalkTween();
+        if (walkTween == null)
+            walkTween = new WalkTween();
 
-        t.start(this, walkingPath, walkingSpeed, cb);
-        addTween(t);
+        walkTween.start(this, walkingPath, walkingSpeed, cb);
+        addTween(walkTween);
+    }
+
+    /**
+     * Removing the walk tween also cancels the path search in progress.
+     */
+    @Override
+    public void removeTween(Class<?> clazz) {
+        if (pathRequest != null && clazz.isAssignableFrom(WalkTween.class)) {
+            pathRequest.cancel();
+            pathRequest = null;
+        }
+
+        super.removeTween(clazz);
     }
 
     /**
@@ -235,6 +310,9 @@ public class CharacterActor extends SpriteActor {
      * This is used to fast walk between scenes. Used when double clicking.
      */
     public void fastWalk() {
+        if (pathRequest != null)
+            pathRequest.complete();
+
         for (Tween<SpriteActor> t : tweens) {
             if (t instanceof WalkTween) {
                 WalkTween wt = (WalkTween) t;
@@ -248,6 +326,21 @@ public class CharacterActor extends SpriteActor {
         return dialogs;
     }
 
+    @Override
+    public boolean isModified() {
+        if (super.isModified())
+            return true;
+
+        if (dialogs != null) {
+            for (Dialog d : dialogs.values()) {
+                if (d.isModified())
+                    return true;
+            }
+        }
+
+        return false;
+    }
+
     @Override
     public String toString() {
 
@@ -255,6 +348,16 @@ public class CharacterActor extends SpriteActor {
                 "\nText Color: " + textColor;
     }
 
+    /**
+     * Waits for the path search in progress, if any, and starts the walk. The
+     * walk must be in the tweens to be saved, so it is called before saving the
+     * game.
+     */
+    public void completePathRequest() {
+        if (pathRequest != null)
+            pathRequest.complete();
+    }
+
     @Override
     public void write(Json json) {
         super.write(json);
@@ -101,6 +101,18 @@ public class Dialog implements Serializable {
 		options.add(o);
 	}
 
+	/**
+	 * @return true if the visibility of any option has changed.
+	 */
+	public boolean isModified() {
+		for (DialogOption o : options) {
+			if (o.isModified())
+				return true;
+		}
+
+		return false;
+	}
+
 	public ArrayList<DialogOption> getOptions() {
 		return options;
 	}
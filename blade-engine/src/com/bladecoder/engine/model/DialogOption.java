@@ -31,12 +31,20 @@ public class DialogOption implements Serializable {
 	private String voiceId;
 	private String responseVoiceId;
 
+	/** The visibility has been changed while playing */
+	private boolean modified = false;
+
 	public boolean isVisible() {
 		return visible;
 	}
 
 	public void setVisible(boolean visible) {
 		this.visible = visible;
+		modified = true;
+	}
+
+	public boolean isModified() {
+		return modified;
 	}
 
 	public String getVerbId() {
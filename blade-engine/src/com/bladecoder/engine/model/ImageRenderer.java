@@ -53,6 +53,18 @@ public class ImageRenderer extends AnimationRenderer {
 	public void update(float delta) {
 	}
 
+	@Override
+	public boolean isAnimating() {
+		return false;
+	}
+
+	@Override
+	public Texture getTexture() {
+		ImageCacheEntry source = (ImageCacheEntry) currentSource;
+
+		return source == null ? null : source.tex;
+	}
+
 	@Override
 	public void draw(SpriteBatch batch, float x, float y, float scaleX, float scaleY, float rotation, Color tint) {
 
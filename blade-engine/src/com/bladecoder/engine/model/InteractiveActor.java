@@ -49,6 +49,10 @@ public class InteractiveActor extends BaseActor implements Comparable<Interactiv
 
 	protected String layer;
 
+	/** Layer and position in it, set by the layer when its order changes */
+	SceneLayer drawLayer;
+	int drawIndex;
+
 	/**
 	 * Characters use this point to walk to the actor.
 	 */
@@ -64,6 +68,21 @@ public class InteractiveActor extends BaseActor implements Comparable<Interactiv
 		return layer;
 	}
 
+	@Override
+	public void setPosition(float x, float y) {
+		float oldY = getY();
+
+		super.setPosition(x, y);
+
+		// the dynamic layers are sorted by y
+		if (y != oldY && scene != null && layer != null) {
+			SceneLayer l = scene.getLayer(layer);
+
+			if (l != null)
+				l.setOrderDirty();
+		}
+	}
+
 	/**
 	 * @return Is visible and has interaction
 	 */
@@ -101,31 +120,30 @@ public class InteractiveActor extends BaseActor implements Comparable<Interactiv
 		return verbs;
 	}
 
+	/**
+	 * The enter/exit verbs are fired by the scene triggers.
+	 */
 	@Override
 	public void update(float delta) {
-		InteractiveActor player = null;
-
-		if (scene != null)
-			player = scene.getPlayer();
-
-		if (isVisible() && player != null) {
-			boolean hit = hit(player.getX(), player.getY());
-			if (!hit && playerInside) {
-				// the player leaves
-				playerInside = false;
-
-				Verb v = getVerb("exit");
-				if (v != null)
-					v.run(null, null);
-			} else if (hit && !playerInside) {
-				// the player enters
-				playerInside = true;
-
-				Verb v = getVerb("enter");
-				if (v != null)
-					v.run(null, null);
-			}
-		}
+	}
+
+	@Override
+	public boolean needsUpdate() {
+		return false;
+	}
+
+	public boolean isPlayerInside() {
+		return playerInside;
+	}
+
+	void setPlayerInside(boolean playerInside) {
+		this.playerInside = playerInside;
+		setModified();
+	}
+
+	@Override
+	public boolean isModified() {
+		return super.isModified() || verbs.isModified();
 	}
 
 	public Verb getVerb(String id) {
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.nio.IntBuffer;
+import java.util.List;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Off-screen image of a layer with only static actors. The layer is rendered
+ * once in a FrameBuffer and drawn as one textured quad until some actor
+ * changes.
+ * 
+ * The actors are rendered with premultiplied alpha to blend the transparent
+ * areas correctly when the image is drawn over the other layers.
+ * 
+ * @author rgarcia
+ */
+public class LayerCache {
+	private static int maxTextureSize = -1;
+
+	private FrameBuffer fbo;
+	private final TextureRegion region = new TextureRegion();
+
+	/** Area of the layer rendered in the image */
+	private final Rectangle bounds = new Rectangle();
+
+	private final Matrix4 projection = new Matrix4();
+	private final Matrix4 oldProjection = new Matrix4();
+	private final IntBuffer viewport = BufferUtils.newIntBuffer(16);
+
+	/**
+	 * Renders the visible sprite actors in the FrameBuffer. Must be called
+	 * outside batch.begin()/batch.end().
+	 * 
+	 * @return false if the layer is too big to be cached.
+	 */
+	public boolean build(SpriteBatch batch, List<InteractiveActor> actors) {
+		calcBounds(actors);
+
+		int width = (int) Math.ceil(bounds.width);
+		int height = (int) Math.ceil(bounds.height);
+
+		if (width <= 0 || height <= 0 || width > getMaxTextureSize() || height > getMaxTextureSize()) {
+			dispose();
+			return false;
+		}
+
+		if (fbo == null || fbo.getWidth() != width || fbo.getHeight() != height) {
+			dispose();
+
+			try {
+				fbo = new FrameBuffer(Format.RGBA8888, width, height, false);
+			} catch (Exception e) {
+				EngineLogger.error("Couldn't create layer cache: " + e.getMessage());
+				fbo = null;
+				return false;
+			}
+
+			fbo.getColorBufferTexture().setFilter(TextureFilter.Linear, TextureFilter.Linear);
+		}
+
+		Gdx.gl.glGetIntegerv(GL20.GL_VIEWPORT, viewport);
+		oldProjection.set(batch.getProjectionMatrix());
+
+		fbo.begin();
+		Gdx.gl.glClearColor(0, 0, 0, 0);
+		Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+		projection.setToOrtho2D(bounds.x, bounds.y, width, height);
+		batch.setProjectionMatrix(projection);
+		batch.setBlendFunctionSeparate(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA, GL20.GL_ONE,
+				GL20.GL_ONE_MINUS_SRC_ALPHA);
+		batch.begin();
+
+		for (int i = 0; i < actors.size(); i++) {
+			InteractiveActor a = actors.get(i);
+
+			if (a instanceof SpriteActor && a.isVisible())
+				((SpriteActor) a).draw(batch);
+		}
+
+		batch.end();
+		batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+		batch.setProjectionMatrix(oldProjection);
+
+		fbo.end(viewport.get(0), viewport.get(1), viewport.get(2), viewport.get(3));
+
+		region.setRegion(fbo.getColorBufferTexture());
+		region.flip(false, true);
+
+		return true;
+	}
+
+	/**
+	 * Draws the cached image. Must be called between batch.begin() and
+	 * batch.end().
+	 */
+	public void draw(SpriteBatch batch) {
+		if (fbo == null)
+			return;
+
+		batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+		batch.draw(region, bounds.x, bounds.y, bounds.width, bounds.height);
+		batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+	}
+
+	public boolean isBuilt() {
+		return fbo != null;
+	}
+
+	public void dispose() {
+		if (fbo != null) {
+			fbo.dispose();
+			fbo = null;
+		}
+	}
+
+	private void calcBounds(List<InteractiveActor> actors) {
+		boolean first = true;
+
+		for (int i = 0; i < actors.size(); i++) {
+			InteractiveActor a = actors.get(i);
+
+			if (!(a instanceof SpriteActor) || !a.isVisible())
+				continue;
+
+			Rectangle r = ((SpriteActor) a).getDrawBounds();
+
+			if (first) {
+				bounds.set(r);
+				first = false;
+			} else {
+				bounds.merge(r);
+			}
+		}
+
+		if (first) {
+			bounds.set(0, 0, 0, 0);
+		} else {
+			// align to whole units to keep the texels in the same place
+			float x = (float) Math.floor(bounds.x);
+			float y = (float) Math.floor(bounds.y);
+
+			bounds.set(x, y, (float) Math.ceil(bounds.x + bounds.width) - x,
+					(float) Math.ceil(bounds.y + bounds.height) - y);
+		}
+	}
+
+	private static int getMaxTextureSize() {
+		if (maxTextureSize == -1) {
+			IntBuffer buf = BufferUtils.newIntBuffer(16);
+			Gdx.gl.glGetIntegerv(GL20.GL_MAX_TEXTURE_SIZE, buf);
+			maxTextureSize = buf.get(0);
+		}
+
+		return maxTextureSize;
+	}
+}
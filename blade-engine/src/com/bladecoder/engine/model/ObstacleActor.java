@@ -31,11 +31,11 @@ public class ObstacleActor extends BaseActor {
 	public void setVisible(boolean visible) {
 		super.setVisible(visible);
 
-		if (scene != null && scene.getPolygonalNavGraph() != null) {
+		if (scene != null && scene.getPathFinder() != null) {
 			if (visible)
-				scene.getPolygonalNavGraph().addDinamicObstacle(getBBox());
+				scene.getPathFinder().addDinamicObstacle(getBBox());
 			else
-				scene.getPolygonalNavGraph().removeDinamicObstacle(getBBox());
+				scene.getPathFinder().removeDinamicObstacle(getBBox());
 		}
 	}
 
@@ -43,19 +43,26 @@ public class ObstacleActor extends BaseActor {
 	public void update(float delta) {
 	}
 
+	@Override
+	public boolean needsUpdate() {
+		return false;
+	}
+
 	@Override
 	public void setPosition(float x, float y) {
 		boolean inNavGraph = false;
 
-		if (scene != null && scene.getPolygonalNavGraph() != null) {
-			inNavGraph = scene.getPolygonalNavGraph().removeDinamicObstacle(getBBox());
+		if (scene != null && scene.getPathFinder() != null) {
+			inNavGraph = scene.getPathFinder().removeDinamicObstacle(getBBox());
 		}
 
 		getBBox().setPosition(x, y);
 
 		if (inNavGraph) {
-			scene.getPolygonalNavGraph().addDinamicObstacle(getBBox());
+			scene.getPathFinder().addDinamicObstacle(getBBox());
 		}
+
+		bboxChanged();
 	}
 
 	@Override
@@ -39,8 +39,13 @@ import com.bladecoder.engine.actions.SceneActorRef;
 import com.bladecoder.engine.anim.Timers;
 import com.bladecoder.engine.assets.AssetConsumer;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.navmeshpathfinder.NavCell;
+import com.bladecoder.engine.navmeshpathfinder.NavMesh;
+import com.bladecoder.engine.navmeshpathfinder.NavMeshGraph;
+import com.bladecoder.engine.pathfinder.WalkZonePathFinder;
 import com.bladecoder.engine.polygonalpathfinder.NavNodePolygonal;
 import com.bladecoder.engine.polygonalpathfinder.PolygonalNavGraph;
+import com.bladecoder.engine.polygonalpathfinder.PrecomputedNavGraph;
 import com.bladecoder.engine.serialization.BladeJson;
 import com.bladecoder.engine.serialization.BladeJson.Mode;
 import com.bladecoder.engine.util.EngineLogger;
@@ -70,13 +75,45 @@ public class Scene implements Serializable, AssetConsumer {
 
 	private SceneCamera camera = new SceneCamera();
 
+	/** Actor bounds to speed up the search of the actor under the cursor */
+	private final ActorGrid actorGrid = new ActorGrid();
+
+	/** Actors with enter/exit verbs */
+	private final SceneTriggers triggers = new SceneTriggers(actorGrid);
+
+	/**
+	 * Actors to update every frame. The actors without animations or tweens are
+	 * removed and added again when they wake up.
+	 */
+	private final Array<BaseActor> activeActors = new Array<>();
+	private final Array<BaseActor> tmpActiveActors = new Array<>();
+
+	/** Area visible in the layer being drawn */
+	private final Rectangle viewRect = new Rectangle();
+
 	private Array<AtlasRegion> background;
 	private String backgroundAtlas;
 	private String backgroundRegionId;
 
+	/** Loads only the background tiles near the camera */
+	private boolean streamBackground;
+	private StreamedBackground streamedBackground;
+
 	/** For polygonal PathFinding */
 	private final PolygonalNavGraph polygonalNavGraph = new PolygonalNavGraph();
 
+	/**
+	 * Use a navigation mesh instead of the visibility graph. Better for big
+	 * walkzones or with a lot of obstacles.
+	 */
+	private boolean navMesh;
+
+	/** For navmesh PathFinding. Created when needed. */
+	private NavMeshGraph navMeshGraph;
+
+	/** The nav graph calculated when saving the model. */
+	private PrecomputedNavGraph precomputedNavGraph;
+
 	/**
 	 * depth vector. X: the actor 'y' position for a 0.0 scale, Y: the actor 'y'
 	 * position for a 1.0 scale.
@@ -111,6 +148,18 @@ public class Scene implements Serializable, AssetConsumer {
 	/** The current walkzone actor */
 	private String walkZone;
 
+	/**
+	 * The scene has been the current scene, so all its actors are saved in the
+	 * game state.
+	 */
+	private boolean visited;
+
+	/**
+	 * The scene state has changed while playing. Untouched scenes are not saved
+	 * in the game state, they are restored from the model.
+	 */
+	private boolean modified;
+
 	public Scene(World w) {
 		this.w = w;
 
@@ -132,6 +181,34 @@ public class Scene implements Serializable, AssetConsumer {
 
 	public void setState(String s) {
 		state = s;
+		modified = true;
+	}
+
+	public boolean isVisited() {
+		return visited;
+	}
+
+	/**
+	 * Must be called when the scene is set as the current scene.
+	 */
+	public void setVisited() {
+		visited = true;
+	}
+
+	/**
+	 * @return false if the scene and its actors are the same as in the model.
+	 *         Then, the scene isn't saved in the game state.
+	 */
+	public boolean isModified() {
+		if (visited || modified || verbs.isModified() || !timers.isEmpty())
+			return true;
+
+		for (BaseActor a : actors.values()) {
+			if (a.isModified())
+				return true;
+		}
+
+		return false;
 	}
 
 	public List<SceneLayer> getLayers() {
@@ -139,7 +216,9 @@ public class Scene implements Serializable, AssetConsumer {
 	}
 
 	public SceneLayer getLayer(String name) {
-		for (SceneLayer l : layers) {
+		for (int i = 0; i < layers.size(); i++) {
+			SceneLayer l = layers.get(i);
+
 			if (name.equals(l.getName()))
 				return l;
 		}
@@ -211,14 +290,29 @@ public class Scene implements Serializable, AssetConsumer {
 		timers.update(delta);
 		textManager.update(delta);
 
-		for (BaseActor a : actors.values()) {
+		// the list can change when updating the actors
+		tmpActiveActors.clear();
+		tmpActiveActors.addAll(activeActors);
+
+		for (int i = 0, n = tmpActiveActors.size; i < n; i++) {
 			// stops if scene has changed, ex. a Leave has been done in some actor update.
 			if (w.getCurrentScene() != this)
 				break;
 
-			a.update(delta);
+			BaseActor a = tmpActiveActors.get(i);
+
+			// removed in a previous actor update
+			if (a.awake && a.getScene() == this)
+				a.update(delta);
 		}
 
+		tmpActiveActors.clear();
+		sleepActors();
+
+		// fires the enter/exit verbs
+		if (w.getCurrentScene() == this)
+			triggers.update(getPlayer());
+
 		// We draw the elements in order: from top to bottom.
 		// so we need to order the array list
 		for (SceneLayer layer : layers)
@@ -227,6 +321,10 @@ public class Scene implements Serializable, AssetConsumer {
 
 	public void draw(SpriteBatch batch) {
 
+		// render the static layers that have changed
+		for (int i = layers.size() - 1; i >= 0; i--)
+			layers.get(i).updateCache(batch);
+
 		if (background != null) {
 			batch.disableBlending();
 			batch.setProjectionMatrix(camera.calculateParallaxMatrix(1, 1));
@@ -239,6 +337,17 @@ public class Scene implements Serializable, AssetConsumer {
 				x += tile.getRegionWidth();
 			}
 
+			batch.end();
+			batch.enableBlending();
+		} else if (streamedBackground != null) {
+			Rectangle view = camera.getParallaxViewRect(1, 1, viewRect);
+
+			streamedBackground.update(view);
+
+			batch.disableBlending();
+			batch.setProjectionMatrix(camera.calculateParallaxMatrix(1, 1));
+			batch.begin();
+			streamedBackground.draw(batch, view);
 			batch.end();
 			batch.enableBlending();
 		}
@@ -249,11 +358,49 @@ public class Scene implements Serializable, AssetConsumer {
 
 			batch.setProjectionMatrix(camera.calculateParallaxMatrix(layer.getParallaxMultiplier(), 1));
 			batch.begin();
-			layer.draw(batch);
+			layer.draw(batch, camera.getParallaxViewRect(layer.getParallaxMultiplier(), 1, viewRect));
 			batch.end();
 		}
 	}
 
+	/**
+	 * @return the number of actors drawn in the last frame.
+	 */
+	public int getDrawnActors() {
+		int n = 0;
+
+		for (SceneLayer layer : layers)
+			n += layer.getDrawnActors();
+
+		return n;
+	}
+
+	/**
+	 * @return the number of actors outside the camera view not drawn in the last
+	 *         frame.
+	 */
+	public int getCulledActors() {
+		int n = 0;
+
+		for (SceneLayer layer : layers)
+			n += layer.getCulledActors();
+
+		return n;
+	}
+
+	/**
+	 * @return the SpriteBatch flushes avoided in the last frame by the layers
+	 *         that group the actors by texture.
+	 */
+	public int getFlushesSaved() {
+		int n = 0;
+
+		for (SceneLayer layer : layers)
+			n += layer.getFlushesSaved();
+
+		return n;
+	}
+
 	public void drawBBoxLines(ShapeRenderer renderer) {
 		// renderer.begin(ShapeType.Rectangle);
 		renderer.begin(ShapeType.Line);
@@ -281,7 +428,24 @@ public class Scene implements Serializable, AssetConsumer {
 			// renderer.rect(r.getX(), r.getY(), r.getWidth(), r.getHeight());
 		}
 
-		if (walkZone != null) {
+		if (walkZone != null && navMesh) {
+			renderer.setColor(WALKZONE_COLOR);
+			renderer.polygon(navMeshGraph.getWalkZone().getTransformedVertices());
+
+			// DRAW NAVMESH CELLS
+			NavMesh mesh = navMeshGraph.getNavMesh();
+
+			if (mesh != null) {
+				renderer.setColor(Color.WHITE);
+
+				for (NavCell c : mesh.getCells()) {
+					renderer.line(c.getX0(), c.getBottom0(), c.getX1(), c.getBottom1());
+					renderer.line(c.getX0(), c.getTop0(), c.getX1(), c.getTop1());
+					renderer.line(c.getX0(), c.getBottom0(), c.getX0(), c.getTop0());
+					renderer.line(c.getX1(), c.getBottom1(), c.getX1(), c.getTop1());
+				}
+			}
+		} else if (walkZone != null) {
 			renderer.setColor(WALKZONE_COLOR);
 			renderer.polygon(polygonalNavGraph.getWalkZone().getTransformedVertices());
 
@@ -332,6 +496,15 @@ public class Scene implements Serializable, AssetConsumer {
 		}
 
 		actor.setScene(this);
+		actorGrid.add(actor);
+		triggers.add(actor);
+		wakeUp(actor);
+
+		// moved from other scene
+		if (actor.getInitScene() != null && !actor.getInitScene().equals(id)) {
+			actor.setModified();
+			modified = true;
+		}
 
 		if (actor instanceof InteractiveActor) {
 			InteractiveActor ia = (InteractiveActor) actor;
@@ -358,23 +531,25 @@ public class Scene implements Serializable, AssetConsumer {
 	 * interaction property enabled.
 	 */
 	public InteractiveActor getInteractiveActorAt(float x, float y) {
+		Array<BaseActor> candidates = actorGrid.query(x, y);
 
-		for (SceneLayer layer : layers) {
+		InteractiveActor result = null;
+		long resultOrder = Long.MAX_VALUE;
 
-			if (!layer.isVisible())
-				continue;
+		for (int i = 0; i < candidates.size; i++) {
+			BaseActor a = candidates.get(i);
 
-			// Obtain actors in reverse (close to camera)
-			for (int i = layer.getActors().size() - 1; i >= 0; i--) {
-				BaseActor a = layer.getActors().get(i);
+			if (a instanceof InteractiveActor && ((InteractiveActor) a).canInteract() && a.hit(x, y)) {
+				long order = getDrawOrder((InteractiveActor) a);
 
-				if (a instanceof InteractiveActor && ((InteractiveActor) a).canInteract() && a.hit(x, y)) {
-					return (InteractiveActor) a;
+				if (order < resultOrder) {
+					result = (InteractiveActor) a;
+					resultOrder = order;
 				}
 			}
 		}
 
-		return null;
+		return result;
 	}
 
 	private final Rectangle tmpToleranceRect = new Rectangle();
@@ -392,54 +567,85 @@ public class Scene implements Serializable, AssetConsumer {
 			return getInteractiveActorAt(x, y);
 		}
 
-		List<SceneLayer> layers = getLayers();
-
 		tmpToleranceRect.x = x - tolerance / 2;
 		tmpToleranceRect.y = y - tolerance / 2;
 		tmpToleranceRect.width = tolerance;
 		tmpToleranceRect.height = tolerance;
 
-		for (SceneLayer layer : layers) {
+		Array<BaseActor> candidates = actorGrid.query(tmpToleranceRect);
 
-			if (!layer.isVisible())
-				continue;
+		InteractiveActor result = null;
+		long resultOrder = Long.MAX_VALUE;
 
-			// Obtain actors in reverse (close to camera)
-			for (int l = layer.getActors().size() - 1; l >= 0; l--) {
-				BaseActor a = layer.getActors().get(l);
+		for (int l = 0; l < candidates.size; l++) {
+			BaseActor a = candidates.get(l);
 
-				if (a instanceof InteractiveActor && ((InteractiveActor) a).canInteract()) {
+			if (!(a instanceof InteractiveActor) || !((InteractiveActor) a).canInteract())
+				continue;
 
-					if (a.hit(x, y) || a.hit(tmpToleranceRect.x, tmpToleranceRect.y)
-							|| a.hit(tmpToleranceRect.x + tmpToleranceRect.width, tmpToleranceRect.y)
-							|| a.hit(tmpToleranceRect.x, tmpToleranceRect.y + tmpToleranceRect.height)
-							|| a.hit(tmpToleranceRect.x + tmpToleranceRect.width,
-									tmpToleranceRect.y + tmpToleranceRect.height))
-						return (InteractiveActor) a;
+			long order = getDrawOrder((InteractiveActor) a);
 
-					float[] verts = a.getBBox().getTransformedVertices();
-					for (int i = 0; i < verts.length; i += 2) {
-						float vx = verts[i];
-						float vy = verts[i + 1];
+			if (order >= resultOrder)
+				continue;
 
-						if (tmpToleranceRect.contains(vx, vy))
-							return (InteractiveActor) a;
-					}
-				}
+			if (hitWithTolerance(a, x, y, tmpToleranceRect)) {
+				result = (InteractiveActor) a;
+				resultOrder = order;
 			}
+		}
+
+		return result;
+	}
 
+	private static boolean hitWithTolerance(BaseActor a, float x, float y, Rectangle r) {
+		if (a.hit(x, y) || a.hit(r.x, r.y) || a.hit(r.x + r.width, r.y) || a.hit(r.x, r.y + r.height)
+				|| a.hit(r.x + r.width, r.y + r.height))
+			return true;
+
+		float[] verts = a.getBBox().getTransformedVertices();
+		for (int i = 0; i < verts.length; i += 2) {
+			float vx = verts[i];
+			float vy = verts[i + 1];
+
+			if (r.contains(vx, vy))
+				return true;
 		}
 
-		return null;
+		return false;
+	}
+
+	/**
+	 * The order used to search actors: first the upper layers and, inside a
+	 * layer, the actors closer to the camera.
+	 * 
+	 * @return the order or Long.MAX_VALUE if the actor is not in a visible layer.
+	 */
+	private long getDrawOrder(InteractiveActor a) {
+		for (int l = 0; l < layers.size(); l++) {
+			SceneLayer layer = layers.get(l);
+
+			if (!layer.isVisible())
+				continue;
+
+			int idx = layer.getDrawIndex(a);
+
+			if (idx != -1)
+				return ((long) l << 32) | (Integer.MAX_VALUE - idx);
+		}
+
+		return Long.MAX_VALUE;
 	}
 
 	/**
 	 * Returns the actor at the position. Including not interactive actors.
 	 */
 	public BaseActor getActorAt(float x, float y) {
+		Array<BaseActor> candidates = actorGrid.query(x, y);
 
 		// 1. Search for ANCHOR Actors
-		for (BaseActor a : actors.values()) {
+		for (int i = 0; i < candidates.size; i++) {
+			BaseActor a = candidates.get(i);
+
 			if (a instanceof AnchorActor) {
 				float dst = Vector2.dst(x, y, a.getX(), a.getY());
 
@@ -449,30 +655,38 @@ public class Scene implements Serializable, AssetConsumer {
 		}
 
 		// 2. Search for INTERACTIVE Actors
-		for (SceneLayer layer : layers) {
+		BaseActor result = null;
+		long resultOrder = Long.MAX_VALUE;
 
-			if (!layer.isVisible())
-				continue;
+		for (int i = 0; i < candidates.size; i++) {
+			BaseActor a = candidates.get(i);
 
-			// Obtain actors in reverse (close to camera)
-			for (int i = layer.getActors().size() - 1; i >= 0; i--) {
-				BaseActor a = layer.getActors().get(i);
+			if (a instanceof InteractiveActor && a.hit(x, y)) {
+				long order = getDrawOrder((InteractiveActor) a);
 
-				if (a.hit(x, y)) {
-					return a;
+				if (order < resultOrder) {
+					result = a;
+					resultOrder = order;
 				}
 			}
 		}
 
+		if (result != null)
+			return result;
+
 		// 3. Search for OBSTACLE actors
-		for (BaseActor a : actors.values()) {
+		for (int i = 0; i < candidates.size; i++) {
+			BaseActor a = candidates.get(i);
+
 			if (a instanceof ObstacleActor && a.hit(x, y)) {
 				return a;
 			}
 		}
 
 		// 4. Search for WALKZONE actors
-		for (BaseActor a : actors.values()) {
+		for (int i = 0; i < candidates.size; i++) {
+			BaseActor a = candidates.get(i);
+
 			if (a instanceof WalkZoneActor && a.hit(x, y)) {
 				return a;
 			}
@@ -481,7 +695,95 @@ public class Scene implements Serializable, AssetConsumer {
 		return null;
 	}
 
+	/**
+	 * Adds the actor to the list of actors to update.
+	 */
+	void wakeUp(BaseActor a) {
+		if (actors.get(a.getId()) != a)
+			return;
+
+		// an animation or a tween has started
+		invalidateLayerCache(a);
+
+		if (!a.awake) {
+			a.awake = true;
+			activeActors.add(a);
+		}
+	}
+
+	/**
+	 * Removes from the list of actors to update the ones that doesn't need it.
+	 */
+	private void sleepActors() {
+		int n = 0;
+
+		for (int i = 0; i < activeActors.size; i++) {
+			BaseActor a = activeActors.get(i);
+
+			if (a.needsUpdate())
+				activeActors.set(n++, a);
+			else
+				a.awake = false;
+		}
+
+		activeActors.truncate(n);
+	}
+
+	/**
+	 * Puts all the actors in the list of actors to update. They will sleep after
+	 * the first update if they don't need it.
+	 */
+	private void wakeUpAll() {
+		for (int i = 0; i < activeActors.size; i++)
+			activeActors.get(i).awake = false;
+
+		activeActors.clear();
+
+		for (BaseActor a : actors.values()) {
+			a.awake = true;
+			activeActors.add(a);
+		}
+	}
+
+	public int getActiveActors() {
+		return activeActors.size;
+	}
+
+	/**
+	 * Must be called when the position, the shape or the visibility of an actor
+	 * changes to update the actor search grid and the triggers.
+	 */
+	void actorChanged(BaseActor a) {
+		actorGrid.invalidate(a);
+		triggers.actorChanged(a);
+		invalidateLayerCache(a);
+	}
+
+	private void invalidateLayerCache(BaseActor a) {
+		if (a instanceof InteractiveActor) {
+			SceneLayer layer = getLayer(((InteractiveActor) a).getLayer());
+
+			if (layer != null)
+				layer.invalidateCache();
+		}
+	}
+
+	/**
+	 * Forces to render again the static layers. Used when the GL context is
+	 * restored.
+	 */
+	public void invalidateLayerCaches() {
+		for (SceneLayer layer : layers)
+			layer.invalidateCache();
+	}
+
+	public SceneTriggers getTriggers() {
+		return triggers;
+	}
+
 	public void setPlayer(CharacterActor a) {
+		modified = true;
+
 		if (a != null) {
 			player = a.getId();
 			a.setInteraction(false);
@@ -503,6 +805,7 @@ public class Scene implements Serializable, AssetConsumer {
 
 	public void setWalkZone(String walkZone) {
 		this.walkZone = walkZone;
+		modified = true;
 	}
 
 	public Vector2 getDepthVector() {
@@ -542,19 +845,44 @@ public class Scene implements Serializable, AssetConsumer {
 			return;
 		}
 
+		modified = true;
+
+		actorGrid.remove(a);
+		triggers.remove(a);
+
+		if (a.awake) {
+			a.awake = false;
+			activeActors.removeValue(a, true);
+		}
+
 		if (a instanceof InteractiveActor) {
 			InteractiveActor ia = (InteractiveActor) a;
 			SceneLayer layer = getLayer(ia.getLayer());
-			layer.getActors().remove(ia);
+			layer.remove(ia);
 		}
 
 		if (a instanceof ObstacleActor && walkZone != null)
-			polygonalNavGraph.removeDinamicObstacle(a.getBBox());
+			getPathFinder().removeDinamicObstacle(a.getBBox());
 
 		a.setScene(null);
 
 	}
 
+	public boolean isStreamBackground() {
+		return streamBackground;
+	}
+
+	public void setStreamBackground(boolean streamBackground) {
+		this.streamBackground = streamBackground;
+	}
+
+	/**
+	 * @return the background when streaming it or null.
+	 */
+	public StreamedBackground getStreamedBackground() {
+		return streamedBackground;
+	}
+
 	public Array<AtlasRegion> getBackground() {
 		return background;
 	}
@@ -586,8 +914,10 @@ public class Scene implements Serializable, AssetConsumer {
 	}
 
 	public void calcWalkzone() {
-		if (walkZone != null) {
-			polygonalNavGraph.createInitialGraph(actors.get(walkZone), actors.values());
+		if (walkZone != null && navMesh) {
+			getNavMeshGraph().createInitialGraph(actors.get(walkZone), actors.values());
+		} else if (walkZone != null) {
+			polygonalNavGraph.createInitialGraph(actors.get(walkZone), actors.values(), precomputedNavGraph);
 		}
 	}
 
@@ -598,7 +928,10 @@ public class Scene implements Serializable, AssetConsumer {
 		textManager.getVoiceManager().loadAssets();
 
 		if (backgroundAtlas != null && !backgroundAtlas.isEmpty()) {
-			EngineAssetManager.getInstance().loadAtlas(backgroundAtlas);
+			if (streamBackground)
+				streamedBackground = new StreamedBackground(backgroundAtlas, backgroundRegionId);
+			else
+				EngineAssetManager.getInstance().loadAtlas(backgroundAtlas);
 		}
 
 		for (BaseActor a : actors.values()) {
@@ -614,7 +947,12 @@ public class Scene implements Serializable, AssetConsumer {
 	public void retrieveAssets() {
 
 		// RETRIEVE BACKGROUND
-		if (backgroundAtlas != null && !backgroundAtlas.isEmpty()) {
+		if (streamedBackground != null) {
+			streamedBackground.loadInfo();
+
+			if (sceneSize == null)
+				camera.setScrollingDimensions(streamedBackground.getWidth(), streamedBackground.getHeight());
+		} else if (backgroundAtlas != null && !backgroundAtlas.isEmpty()) {
 			background = EngineAssetManager.getInstance().getRegions(backgroundAtlas, backgroundRegionId);
 
 			int width = 0;
@@ -655,7 +993,10 @@ public class Scene implements Serializable, AssetConsumer {
 	@Override
 	public void dispose() {
 
-		if (backgroundAtlas != null && !backgroundAtlas.isEmpty()) {
+		if (streamedBackground != null) {
+			streamedBackground.dispose();
+			streamedBackground = null;
+		} else if (backgroundAtlas != null && !backgroundAtlas.isEmpty()) {
 			EngineAssetManager.getInstance().disposeAtlas(backgroundAtlas);
 		}
 
@@ -664,6 +1005,9 @@ public class Scene implements Serializable, AssetConsumer {
 				((AssetConsumer) a).dispose();
 		}
 
+		for (SceneLayer layer : layers)
+			layer.disposeCache();
+
 		soundManager.dispose();
 		getTextManager().getVoiceManager().dispose();
 	}
@@ -686,6 +1030,29 @@ public class Scene implements Serializable, AssetConsumer {
 		return polygonalNavGraph;
 	}
 
+	private NavMeshGraph getNavMeshGraph() {
+		if (navMeshGraph == null)
+			navMeshGraph = new NavMeshGraph();
+
+		return navMeshGraph;
+	}
+
+	/**
+	 * @return the navmesh or the polygonal pathfinder depending on the scene
+	 *         configuration.
+	 */
+	public WalkZonePathFinder getPathFinder() {
+		return navMesh ? getNavMeshGraph() : polygonalNavGraph;
+	}
+
+	public boolean isNavMesh() {
+		return navMesh;
+	}
+
+	public void setNavMesh(boolean navMesh) {
+		this.navMesh = navMesh;
+	}
+
 	@Override
 	public void write(Json json) {
 		BladeJson bjson = (BladeJson) json;
@@ -712,12 +1079,33 @@ public class Scene implements Serializable, AssetConsumer {
 			if (sceneSize != null)
 				json.writeValue("sceneSize", sceneSize);
 
+			if (navMesh)
+				json.writeValue("navMesh", navMesh);
+
+			if (streamBackground)
+				json.writeValue("streamBackground", streamBackground);
+
+			// Store the nav graph to avoid calculating it when loading the scene. It
+			// is built in a new graph to not modify the graph used by the scene.
+			if (!navMesh && walkZone != null && actors.get(walkZone) != null) {
+				PolygonalNavGraph graph = new PolygonalNavGraph();
+				graph.createInitialGraph(actors.get(walkZone), actors.values(), precomputedNavGraph);
+				json.writeValue("navGraph", graph.createPrecomputedGraph(), PrecomputedNavGraph.class);
+			}
+
 		} else {
 			SceneActorRef actorRef;
 
+			// the actors are read by id, so there is no need to sort them
+			if (visited)
+				json.writeValue("visited", visited);
+
+			// the untouched actors are restored from the model
 			json.writeObjectStart("actors");
-			SortedMap<String, BaseActor> sortedActors = new TreeMap<>(actors);
-			for (BaseActor a : sortedActors.values()) {
+			for (BaseActor a : actors.values()) {
+				if (!visited && !a.isModified())
+					continue;
+
 				actorRef = new SceneActorRef(a.getInitScene(), a.getId());
 				json.writeValue(actorRef.toString(), a);
 			}
@@ -784,6 +1172,10 @@ public class Scene implements Serializable, AssetConsumer {
 
 			sceneSize = json.readValue("sceneSize", Vector2.class, jsonData);
 
+			navMesh = json.readValue("navMesh", Boolean.class, false, jsonData);
+			streamBackground = json.readValue("streamBackground", Boolean.class, false, jsonData);
+			precomputedNavGraph = json.readValue("navGraph", PrecomputedNavGraph.class, jsonData);
+
 			// FOR BACKWARDS COMPATIBILITY
 			if (jsonData.get("polygonalNavGraph") != null) {
 
@@ -807,10 +1199,23 @@ public class Scene implements Serializable, AssetConsumer {
 				walkZone = wz.getId();
 			}
 
+			actorGrid.clear();
+			triggers.clear();
+
+			for (BaseActor a : actors.values()) {
+				actorGrid.add(a);
+				triggers.add(a);
+			}
+
+			wakeUpAll();
+
 		} else {
 			JsonValue jsonValueActors = jsonData.get("actors");
 			SceneActorRef actorRef;
 
+			visited = json.readValue("visited", boolean.class, false, jsonData);
+			modified = true;
+
 			// GET ACTORS FROM HIS INIT SCENE AND MOVE IT TO THE LOADING SCENE.
 			for (int i = 0; i < jsonValueActors.size; i++) {
 				JsonValue jsonValueAct = jsonValueActors.get(i);
@@ -857,6 +1262,18 @@ public class Scene implements Serializable, AssetConsumer {
 			if (jsonData.get("textmanager") != null) {
 				textManager.read(json, jsonData.get("textmanager"));
 			}
+
+			// the actor positions are restored without setPosition()
+			for (SceneLayer layer : layers) {
+				layer.setOrderDirty();
+				layer.invalidateCache();
+			}
+
+			actorGrid.invalidate();
+			triggers.reset();
+
+			// the tweens and animations are restored without waking up the actors
+			wakeUpAll();
 		}
 
 		verbs.read(json, jsonData);
@@ -19,6 +19,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Json;
@@ -191,6 +192,19 @@ public class SceneCamera extends OrthographicCamera implements Serializable {
 		return parallaxCombined;
 	}
 
+	/**
+	 * Calculates the scene area visible in a layer with the given parallax. The
+	 * camera position is the same used in calculateParallaxMatrix().
+	 */
+	public Rectangle getParallaxViewRect(float parallaxX, float parallaxY, Rectangle out) {
+		float w = viewportWidth * zoom;
+		float h = viewportHeight * zoom;
+		float x = (position.x - scrollingWidth / 2) * parallaxX + scrollingWidth / 2;
+		float y = position.y * parallaxY;
+
+		return out.set(x - w / 2, y - h / 2, w, h);
+	}
+
 	@Override
 	public void write(Json json) {
 		float worldScale = EngineAssetManager.getInstance().getScale();
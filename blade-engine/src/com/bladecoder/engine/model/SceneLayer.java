@@ -6,32 +6,250 @@ import java.util.Comparator;
 import java.util.List;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 
 public class SceneLayer {
 	private String name;
 	private boolean visible = true;
 	private boolean dynamic;
 	private float parallax = 1.0f;
+
+	/** Groups the actors by texture when drawing to reduce the batch flushes */
+	private boolean batchByTexture;
+
+	transient private TextureBatcher batcher;
 	
 	transient private final List<InteractiveActor> actors = new ArrayList<InteractiveActor>();
+
+	/** An actor has been added or has moved in the y axis since the last sort */
+	transient private boolean orderDirty = true;
+
+	/** The order has changed since the draw index of the actors was set */
+	transient private boolean indexDirty = true;
+
+	/** Times the actors have been sorted and actors moved by the sorts */
+	transient private int sortCount;
+	transient private int movedActors;
+
+	/** Actors drawn and skipped in the last draw */
+	transient private int drawnActors;
+	transient private int culledActors;
+
+	/**
+	 * Image of the layer when all its actors are static. Built when the layer
+	 * hasn't changed for CACHE_STABLE_FRAMES frames.
+	 */
+	transient private LayerCache cache;
+	transient private boolean cacheValid;
+	transient private int stableFrames;
+
+	private static final int CACHE_STABLE_FRAMES = 2;
 	
+	/**
+	 * Sorts the actors of dynamic layers by their y position. Only done when an
+	 * actor has moved. As the actors move a little between frames, the order is
+	 * repaired with an insertion sort that is linear when the order is almost
+	 * correct.
+	 */
 	public void update() {
-		if(dynamic && visible)
-			Collections.sort(actors);
+		if(!dynamic || !visible || !orderDirty)
+			return;
+
+		orderDirty = false;
+		sortCount++;
+
+		for (int i = 1; i < actors.size(); i++) {
+			InteractiveActor a = actors.get(i);
+			int j = i - 1;
+
+			if (actors.get(j).compareTo(a) <= 0)
+				continue;
+
+			while (j >= 0 && actors.get(j).compareTo(a) > 0) {
+				actors.set(j + 1, actors.get(j));
+				j--;
+			}
+
+			actors.set(j + 1, a);
+			movedActors++;
+			indexDirty = true;
+		}
+	}
+
+	/**
+	 * Position of the actor in the draw order of the layer. Constant time, the
+	 * positions are only set again when the order changes.
+	 * 
+	 * @return the index or -1 if the actor is not in this layer.
+	 */
+	public int getDrawIndex(InteractiveActor a) {
+		if (indexDirty) {
+			for (int i = 0; i < actors.size(); i++) {
+				InteractiveActor ia = actors.get(i);
+				ia.drawLayer = this;
+				ia.drawIndex = i;
+			}
+
+			indexDirty = false;
+		}
+
+		return a.drawLayer == this ? a.drawIndex : -1;
+	}
+
+	/**
+	 * Must be called when an actor of the layer changes its y position.
+	 */
+	public void setOrderDirty() {
+		orderDirty = true;
+	}
+
+	public int getSortCount() {
+		return sortCount;
+	}
+
+	public int getMovedActors() {
+		return movedActors;
 	}
 	
 	public void draw(SpriteBatch spriteBatch) {
+		draw(spriteBatch, null);
+	}
+
+	/**
+	 * Draws the actors inside the view rectangle. The actors outside are not sent
+	 * to the batch.
+	 * 
+	 * @param view the layer area visible by the camera. If null, all the actors
+	 *             are drawn.
+	 */
+	public void draw(SpriteBatch spriteBatch, Rectangle view) {
+		drawnActors = 0;
+		culledActors = 0;
+
 		if(!visible)
 			return;
+
+		if (cacheValid) {
+			cache.draw(spriteBatch);
+			drawnActors = actors.size();
+			return;
+		}
 		
-		for (BaseActor a : actors) {
-			if(a instanceof SpriteActor)
-				((SpriteActor)a).draw(spriteBatch);
+		if (batchByTexture && batcher == null)
+			batcher = new TextureBatcher();
+
+		for (int i = 0; i < actors.size(); i++) {
+			BaseActor a = actors.get(i);
+
+			if(a instanceof SpriteActor && a.isVisible()) {
+				SpriteActor sa = (SpriteActor)a;
+
+				if(view == null || sa.isInView(view)) {
+					if (batchByTexture)
+						batcher.add(sa);
+					else
+						sa.draw(spriteBatch);
+
+					drawnActors++;
+				} else {
+					culledActors++;
+				}
+			}
 		}
+
+		if (batchByTexture)
+			batcher.draw(spriteBatch);
+	}
+
+	/**
+	 * @return the texture switches avoided in the last draw when batching by
+	 *         texture.
+	 */
+	public int getFlushesSaved() {
+		return batchByTexture && batcher != null && !cacheValid && visible ? batcher.getFlushesSaved() : 0;
+	}
+
+	/**
+	 * Renders the layer in the cache if it is static and it hasn't changed
+	 * lately. Must be called outside batch.begin()/batch.end().
+	 */
+	public void updateCache(SpriteBatch spriteBatch) {
+		if (cacheValid || !visible || !isStatic()) {
+			return;
+		}
+
+		if (++stableFrames < CACHE_STABLE_FRAMES)
+			return;
+
+		if (cache == null)
+			cache = new LayerCache();
+
+		cacheValid = cache.build(spriteBatch, actors);
+	}
+
+	/**
+	 * A layer is static when it is not sorted by y and all its visible actors are
+	 * images or stopped atlas animations.
+	 */
+	private boolean isStatic() {
+		if (dynamic)
+			return false;
+
+		boolean drawable = false;
+
+		for (int i = 0; i < actors.size(); i++) {
+			InteractiveActor a = actors.get(i);
+
+			if (!(a instanceof SpriteActor) || !a.isVisible())
+				continue;
+
+			SpriteActor sa = (SpriteActor) a;
+			ActorRenderer r = sa.getRenderer();
+
+			if (!(r instanceof ImageRenderer || r instanceof AtlasRenderer) || sa.needsUpdate())
+				return false;
+
+			drawable = true;
+		}
+
+		return drawable;
+	}
+
+	/**
+	 * Must be called when an actor of the layer changes its visibility, position
+	 * or animation.
+	 */
+	public void invalidateCache() {
+		cacheValid = false;
+		stableFrames = 0;
+	}
+
+	public boolean isCached() {
+		return cacheValid;
+	}
+
+	public void disposeCache() {
+		invalidateCache();
+
+		if (cache != null) {
+			cache.dispose();
+			cache = null;
+		}
+	}
+
+	public int getDrawnActors() {
+		return drawnActors;
+	}
+
+	public int getCulledActors() {
+		return culledActors;
 	}
 	
 	public void add(InteractiveActor actor) {
 		actors.add(actor);
+		orderDirty = true;
+		indexDirty = true;
+		invalidateCache();
 	}
 
 	public String getName() {
@@ -48,6 +266,7 @@ public class SceneLayer {
 
 	public void setVisible(boolean visible) {
 		this.visible = visible;
+		invalidateCache();
 	}
 
 	public boolean isDynamic() {
@@ -56,6 +275,7 @@ public class SceneLayer {
 
 	public void setDynamic(boolean dynamic) {
 		this.dynamic = dynamic;
+		invalidateCache();
 	}
 
 	public List<InteractiveActor> getActors() {
@@ -63,6 +283,8 @@ public class SceneLayer {
 	}
 
 	public void orderByZIndex() {
+		invalidateCache();
+
 		Collections.sort(actors, new Comparator<InteractiveActor>() {
 
 			@Override
@@ -70,10 +292,34 @@ public class SceneLayer {
 				return (int) (a1.getZIndex() - a2.getZIndex());
 			}
 		});
+
+		indexDirty = true;
+
+		// the dynamic layers must be sorted by y again
+		if (dynamic)
+			setOrderDirty();
 	}
 
 	public boolean remove(BaseActor actor) {
-		return actors.remove(actor);
+		invalidateCache();
+
+		if (!actors.remove(actor))
+			return false;
+
+		if (((InteractiveActor) actor).drawLayer == this)
+			((InteractiveActor) actor).drawLayer = null;
+
+		indexDirty = true;
+
+		return true;
+	}
+
+	public boolean isBatchByTexture() {
+		return batchByTexture;
+	}
+
+	public void setBatchByTexture(boolean batchByTexture) {
+		this.batchByTexture = batchByTexture;
 	}
 
 	public float getParallaxMultiplier() {
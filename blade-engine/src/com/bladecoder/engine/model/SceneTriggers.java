@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Fires the 'enter' and 'exit' verbs of the scene actors when the player walks
+ * in or out of them.
+ * 
+ * Only the actors with enter/exit verbs are registered. The actors under the
+ * player are obtained from the scene actor grid and the test is only done when
+ * the player or a registered actor has changed.
+ * 
+ * @author rgarcia
+ */
+public class SceneTriggers {
+	public static final String ENTER_VERB = "enter";
+	public static final String EXIT_VERB = "exit";
+
+	private final ActorGrid grid;
+
+	private final ObjectMap<BaseActor, Trigger> triggers = new ObjectMap<>();
+
+	/** Triggers with the player inside */
+	private final Array<Trigger> inside = new Array<>(false, 4);
+
+	private final Array<Trigger> entered = new Array<>(false, 4);
+	private final Array<Trigger> exited = new Array<>(false, 4);
+
+	private InteractiveActor lastPlayer;
+	private float lastX, lastY;
+	private boolean dirty = true;
+	private int stamp;
+
+	public SceneTriggers(ActorGrid grid) {
+		this.grid = grid;
+	}
+
+	public void add(BaseActor a) {
+		if (!(a instanceof InteractiveActor))
+			return;
+
+		InteractiveActor ia = (InteractiveActor) a;
+		VerbManager vm = ia.getVerbManager();
+
+		if (!vm.hasVerb(ENTER_VERB) && !vm.hasVerb(EXIT_VERB))
+			return;
+
+		Trigger t = new Trigger(ia);
+		Trigger old = triggers.put(a, t);
+
+		if (old != null)
+			inside.removeValue(old, true);
+
+		if (ia.isPlayerInside())
+			inside.add(t);
+
+		dirty = true;
+	}
+
+	public void remove(BaseActor a) {
+		Trigger t = triggers.remove(a);
+
+		if (t != null)
+			inside.removeValue(t, true);
+	}
+
+	public void clear() {
+		triggers.clear();
+		inside.clear();
+		dirty = true;
+	}
+
+	/**
+	 * Registers again the triggers to take the saved 'playerInside' state of the
+	 * actors.
+	 */
+	public void reset() {
+		inside.clear();
+
+		for (Trigger t : triggers.values()) {
+			if (t.actor.isPlayerInside())
+				inside.add(t);
+		}
+
+		dirty = true;
+	}
+
+	/**
+	 * Must be called when the actor bbox or visibility has changed.
+	 */
+	public void actorChanged(BaseActor a) {
+		if (!dirty && triggers.containsKey(a))
+			dirty = true;
+	}
+
+	public int getSize() {
+		return triggers.size;
+	}
+
+	public void update(InteractiveActor player) {
+		if (player == null || triggers.size == 0) {
+			lastPlayer = null;
+			return;
+		}
+
+		float x = player.getX();
+		float y = player.getY();
+
+		if (!dirty && player == lastPlayer && x == lastX && y == lastY)
+			return;
+
+		dirty = false;
+		lastPlayer = player;
+		lastX = x;
+		lastY = y;
+		stamp++;
+
+		Array<BaseActor> candidates = grid.query(x, y);
+
+		for (int i = 0; i < candidates.size; i++) {
+			BaseActor a = candidates.get(i);
+			Trigger t = triggers.get(a);
+
+			if (t == null || !a.isVisible() || !a.hit(x, y))
+				continue;
+
+			t.stamp = stamp;
+
+			if (!t.actor.isPlayerInside()) {
+				t.actor.setPlayerInside(true);
+				inside.add(t);
+				entered.add(t);
+			}
+		}
+
+		for (int i = inside.size - 1; i >= 0; i--) {
+			Trigger t = inside.get(i);
+
+			// the state of the not visible actors doesn't change
+			if (t.stamp != stamp && t.actor.isVisible()) {
+				t.actor.setPlayerInside(false);
+				inside.removeIndex(i);
+				exited.add(t);
+			}
+		}
+
+		// the verbs are run after the search because they can change the scene
+		for (int i = 0; i < exited.size; i++) {
+			Verb v = exited.get(i).getExitVerb();
+
+			if (v != null)
+				v.run(null, null);
+		}
+
+		for (int i = 0; i < entered.size; i++) {
+			Verb v = entered.get(i).getEnterVerb();
+
+			if (v != null)
+				v.run(null, null);
+		}
+
+		exited.clear();
+		entered.clear();
+	}
+
+	private static class Trigger {
+		final InteractiveActor actor;
+		int stamp;
+
+		/** The verbs resolved for the cached state */
+		private String state;
+		private boolean resolved;
+		private Verb enter, exit;
+
+		Trigger(InteractiveActor actor) {
+			this.actor = actor;
+		}
+
+		Verb getEnterVerb() {
+			resolve();
+			return enter;
+		}
+
+		Verb getExitVerb() {
+			resolve();
+			return exit;
+		}
+
+		private void resolve() {
+			String s = actor.getState();
+
+			if (resolved && (s == null ? state == null : s.equals(state)))
+				return;
+
+			state = s;
+			resolved = true;
+			enter = actor.getVerb(ENTER_VERB);
+			exit = actor.getVerb(EXIT_VERB);
+		}
+	}
+}
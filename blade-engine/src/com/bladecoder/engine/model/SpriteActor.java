@@ -19,6 +19,7 @@ import java.util.ArrayList;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
@@ -50,8 +51,13 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 
 	private String playingSound;
 
+	/** Area covered by the renderer. Calculated again when the key changes. */
+	private final Rectangle drawBounds = new Rectangle();
+	private final float[] drawBoundsKey = { Float.NaN, 0, 0, 0, 0, 0, 0, 0 };
+
 	public void setRenderer(ActorRenderer r) {
 		renderer = r;
+		wakeUp();
 	}
 
 	public ActorRenderer getRenderer() {
@@ -95,6 +101,7 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 			renderer.updateBboxFromRenderer(null);
 
 		setDirtyProp(DirtyProps.BBOX_FROM_RENDERER);
+		bboxChanged();
 	}
 
 	public float getWidth() {
@@ -124,6 +131,9 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 	public void setTint(Color tint) {
 		this.tint = tint;
 		setDirtyProp(DirtyProps.TINT);
+
+		if (scene != null)
+			scene.actorChanged(this);
 	}
 
 	public void setScale(float scale) {
@@ -143,12 +153,14 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 
 		setDirtyProp(DirtyProps.SCALEX);
 		setDirtyProp(DirtyProps.SCALEY);
+		bboxChanged();
 	}
 
 	public void setRot(float rot) {
 		this.rot = rot;
 		getBBox().setRotation(rot);
 		setDirtyProp(DirtyProps.ROT);
+		bboxChanged();
 	}
 
 	public float getRot() {
@@ -162,6 +174,10 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 		if (isVisible()) {
 			renderer.update(delta);
 
+			// the renderer animations change the bbox
+			if (bboxFromRenderer)
+				bboxChanged();
+
 			for (int i = 0; i < tweens.size(); i++) {
 				Tween<SpriteActor> t = tweens.get(i);
 
@@ -176,6 +192,11 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 		}
 	}
 
+	@Override
+	public boolean needsUpdate() {
+		return isVisible() && (!tweens.isEmpty() || renderer.isAnimating());
+	}
+
 	public void draw(SpriteBatch batch) {
 		if (isVisible()) {
 			if (scaleX != 0 && scaleY != 0) {
@@ -184,6 +205,67 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 		}
 	}
 
+	/**
+	 * Checks if the actor can be drawn inside the given rectangle. Used to skip
+	 * the actors outside the camera view.
+	 * 
+	 * Renderers without fixed size, like particles, are always in view.
+	 */
+	public boolean isInView(Rectangle view) {
+		if (renderer == null || renderer instanceof ParticleRenderer)
+			return true;
+
+		return getDrawBounds().overlaps(view);
+	}
+
+	/**
+	 * The rectangle that contains the renderer drawing at the current position,
+	 * scale and rotation. The flip is also considered.
+	 */
+	public Rectangle getDrawBounds() {
+		float w = renderer.getWidth();
+		float h = renderer.getHeight();
+		int align = renderer.getOrgAlign();
+
+		float[] key = drawBoundsKey;
+
+		if (key[0] == getX() && key[1] == getY() && key[2] == scaleX && key[3] == scaleY && key[4] == rot
+				&& key[5] == w && key[6] == h && key[7] == align)
+			return drawBounds;
+
+		key[0] = getX();
+		key[1] = getY();
+		key[2] = scaleX;
+		key[3] = scaleY;
+		key[4] = rot;
+		key[5] = w;
+		key[6] = h;
+		key[7] = align;
+
+		float dx = AnimationRenderer.getAlignDx(w, align);
+		float dy = AnimationRenderer.getAlignDy(h, align);
+
+		// symmetric in x to contain the flipped image
+		float halfW = Math.max(Math.abs(dx), Math.abs(dx + w)) * Math.abs(scaleX);
+		float bottom = dy * scaleY;
+		float top = (dy + h) * scaleY;
+
+		if (scaleY < 0) {
+			float tmp = bottom;
+			bottom = top;
+			top = tmp;
+		}
+
+		if (rot != 0) {
+			float r = (float) Math.sqrt(halfW * halfW + Math.max(bottom * bottom, top * top));
+			drawBounds.set(getX() - r, getY() - r, r * 2, r * 2);
+		} else {
+			drawBounds.set(getX() - halfW, getY() + bottom, halfW * 2, top - bottom);
+		}
+
+		return drawBounds;
+	}
+
 	public void startAnimation(String id, ActionCallback cb) {
 		startAnimation(id, Tween.Type.SPRITE_DEFINED, 1, cb);
 	}
@@ -200,9 +282,14 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 
 		EngineLogger.debug("ANIMATION: " + this.id + "." + id);
 
+		setModified();
+
 		((AnimationRenderer) renderer).startAnimation(id, repeatType, count, cb);
 
 		outAnim(repeatType);
+
+		if (bboxFromRenderer)
+			bboxChanged();
 	}
 
 	public void removeTween(Class<?> clazz) {
@@ -250,6 +337,8 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 	 * distance
 	 */
 	protected void outAnim(Type repeatType) {
+		wakeUp();
+
 		AnimationDesc fa = ((AnimationRenderer) renderer).getCurrentAnimation();
 
 		if (fa != null) {
@@ -279,6 +368,8 @@ public class SpriteActor extends InteractiveActor implements AssetConsumer {
 		removeTween(tween.getClass());
 
 		tweens.add(tween);
+		setModified();
+		wakeUp();
 	}
 
 	@Override
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import java.util.Comparator;
+
+import com.badlogic.gdx.assets.loaders.TextureLoader.TextureParameter;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Page;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.TextureAtlasData.Region;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Scene background that only keeps in memory the atlas pages with tiles near
+ * the camera.
+ * 
+ * The atlas file is parsed without loading its textures. Every page is loaded
+ * as a texture asynchronously when its tiles enter the camera view plus a
+ * margin, or before that in the scroll direction, and unloaded when they are
+ * far away. To stream a wide background, the tiles must be packed in different
+ * pages.
+ * 
+ * @author rgarcia
+ */
+public class StreamedBackground {
+	/** View width fraction loaded at both sides of the view */
+	private static final float MARGIN = 0.5f;
+
+	/** View width fraction loaded ahead in the scroll direction */
+	private static final float PREFETCH = 1f;
+
+	private final String atlas;
+	private final String regionId;
+
+	private final Array<Tile> tiles = new Array<>();
+	private final Array<PageInfo> pages = new Array<>();
+
+	private float width, height;
+
+	private float lastViewX = Float.NaN;
+	private float scrollDir;
+
+	/** Some requested page is not loaded yet */
+	private boolean loading;
+
+	private static class PageInfo {
+		String fileName;
+		TextureParameter param;
+		boolean requested;
+		boolean needed, keep;
+	}
+
+	private static class Tile {
+		PageInfo page;
+		float x;
+		int left, top, width, height;
+		TextureRegion region;
+	}
+
+	public StreamedBackground(String atlas, String regionId) {
+		this.atlas = atlas;
+		this.regionId = regionId;
+	}
+
+	/**
+	 * Reads the tiles from the atlas file. The textures are not loaded.
+	 */
+	public void loadInfo() {
+		String atlasName = EngineAssetManager.ATLASES_DIR + atlas + EngineAssetManager.ATLAS_EXT;
+		FileHandle atlasFile = EngineAssetManager.getInstance().getResAsset(atlasName);
+		TextureAtlasData data = new TextureAtlasData(atlasFile, atlasFile.parent(), false);
+
+		// the pages are loaded with the unresolved path to use the resolution
+		// resolver as the atlas
+		String dir = new FileHandle(atlasName).parent().path();
+
+		pages.clear();
+		tiles.clear();
+
+		for (Page p : data.getPages()) {
+			PageInfo pi = new PageInfo();
+			pi.fileName = dir + "/" + p.textureFile.name();
+
+			pi.param = new TextureParameter();
+			pi.param.format = p.format;
+			pi.param.genMipMaps = p.useMipMaps;
+			pi.param.minFilter = p.minFilter;
+			pi.param.magFilter = p.magFilter;
+			pi.param.wrapU = p.uWrap;
+			pi.param.wrapV = p.vWrap;
+
+			pages.add(pi);
+		}
+
+		Array<Region> regions = new Array<>();
+
+		for (Region r : data.getRegions()) {
+			if (r.name.equals(regionId))
+				regions.add(r);
+		}
+
+		// same order than TextureAtlas.findRegions()
+		regions.sort(new Comparator<Region>() {
+			@Override
+			public int compare(Region r1, Region r2) {
+				return Integer.compare(r1.index == -1 ? Integer.MAX_VALUE : r1.index,
+						r2.index == -1 ? Integer.MAX_VALUE : r2.index);
+			}
+		});
+
+		width = 0;
+		height = 0;
+
+		for (Region r : regions) {
+			Tile t = new Tile();
+			t.page = pages.get(data.getPages().indexOf(r.page, true));
+			t.left = r.left;
+			t.top = r.top;
+			t.width = r.rotate ? r.height : r.width;
+			t.height = r.rotate ? r.width : r.height;
+			t.x = width;
+
+			width += t.width;
+
+			if (tiles.size == 0)
+				height = t.height;
+
+			tiles.add(t);
+		}
+
+		if (tiles.size == 0)
+			EngineLogger.error("Regions for " + regionId + " not found in atlas " + atlas);
+	}
+
+	public float getWidth() {
+		return width;
+	}
+
+	public float getHeight() {
+		return height;
+	}
+
+	/**
+	 * Requests the pages near the view and unloads the far ones.
+	 * 
+	 * @param view the area of the background visible by the camera.
+	 */
+	public void update(Rectangle view) {
+		if (!Float.isNaN(lastViewX) && view.x != lastViewX)
+			scrollDir = Math.signum(view.x - lastViewX);
+
+		lastViewX = view.x;
+
+		float margin = view.width * MARGIN;
+		float loadLeft = view.x - margin - (scrollDir < 0 ? view.width * PREFETCH : 0);
+		float loadRight = view.x + view.width + margin + (scrollDir > 0 ? view.width * PREFETCH : 0);
+
+		// more distance to unload than to load, to not load/unload the same page
+		// when moving near the limit
+		float keepLeft = loadLeft - margin;
+		float keepRight = loadRight + margin;
+
+		for (int i = 0; i < pages.size; i++) {
+			PageInfo p = pages.get(i);
+			p.needed = false;
+			p.keep = false;
+		}
+
+		for (int i = 0; i < tiles.size; i++) {
+			Tile t = tiles.get(i);
+
+			if (t.x < loadRight && t.x + t.width > loadLeft)
+				t.page.needed = true;
+
+			if (t.x < keepRight && t.x + t.width > keepLeft)
+				t.page.keep = true;
+		}
+
+		EngineAssetManager am = EngineAssetManager.getInstance();
+		loading = false;
+
+		for (int i = 0; i < pages.size; i++) {
+			PageInfo p = pages.get(i);
+
+			if (p.needed && !p.requested) {
+				am.load(p.fileName, Texture.class, p.param);
+				p.requested = true;
+			} else if (p.requested && !p.keep) {
+				unload(p);
+			}
+
+			if (p.requested && !am.isLoaded(p.fileName))
+				loading = true;
+		}
+	}
+
+	/**
+	 * @return true if some page requested in the last update() is not loaded.
+	 *         The asset manager is updated by the world while it is true.
+	 */
+	public boolean isLoading() {
+		return loading;
+	}
+
+	/**
+	 * Draws the tiles in the view. Visible tiles not loaded yet are loaded
+	 * synchronously.
+	 * 
+	 * @param view the area to draw. null to draw all the tiles.
+	 */
+	public void draw(SpriteBatch batch, Rectangle view) {
+		for (int i = 0; i < tiles.size; i++) {
+			Tile t = tiles.get(i);
+
+			if (view != null && (t.x >= view.x + view.width || t.x + t.width <= view.x))
+				continue;
+
+			batch.draw(getRegion(t), t.x, 0f);
+		}
+	}
+
+	private TextureRegion getRegion(Tile t) {
+		if (t.region == null) {
+			EngineAssetManager am = EngineAssetManager.getInstance();
+			PageInfo p = t.page;
+
+			if (!p.requested) {
+				am.load(p.fileName, Texture.class, p.param);
+				p.requested = true;
+			}
+
+			Texture tex = am.finishLoadingAsset(p.fileName);
+
+			t.region = new TextureRegion(tex, t.left, t.top, t.width, t.height);
+		}
+
+		return t.region;
+	}
+
+	private void unload(PageInfo p) {
+		EngineAssetManager am = EngineAssetManager.getInstance();
+
+		if (am.contains(p.fileName))
+			am.unload(p.fileName);
+
+		p.requested = false;
+
+		for (int i = 0; i < tiles.size; i++) {
+			Tile t = tiles.get(i);
+
+			if (t.page == p)
+				t.region = null;
+		}
+	}
+
+	public void dispose() {
+		for (int i = 0; i < pages.size; i++) {
+			PageInfo p = pages.get(i);
+
+			if (p.requested)
+				unload(p);
+		}
+
+		lastViewX = Float.NaN;
+		scrollDir = 0;
+		loading = false;
+	}
+}
@@ -81,6 +81,11 @@ public class TextRenderer implements ActorRenderer {
 	public void update(float delta) {
 	}
 
+	@Override
+	public boolean isAnimating() {
+		return false;
+	}
+
 	private static final Matrix4 tmp = new Matrix4();
 
 	@Override
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.model;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Draws a list of actors grouping the ones with the same texture to reduce the
+ * SpriteBatch flushes.
+ * 
+ * An actor is drawn before the previous ones only when it doesn't overlap any
+ * of them, so the result is the same as drawing in order. Actors with unknown
+ * texture are never passed.
+ * 
+ * @author rgarcia
+ */
+public class TextureBatcher {
+	/** Max. actors to pass to find another actor with the same texture */
+	private static final int MAX_LOOKAHEAD = 32;
+
+	/** The added actors and their textures */
+	private SpriteActor[] actors = new SpriteActor[16];
+	private Texture[] textures = new Texture[16];
+	private boolean[] drawn = new boolean[16];
+	private int size;
+
+	private final Array<Rectangle> skipped = new Array<>();
+
+	/** Texture switches avoided in the last draw */
+	private int flushesSaved;
+
+	public void add(SpriteActor a) {
+		if (size == actors.length) {
+			int capacity = size * 2;
+			SpriteActor[] newActors = new SpriteActor[capacity];
+			Texture[] newTextures = new Texture[capacity];
+			System.arraycopy(actors, 0, newActors, 0, size);
+			System.arraycopy(textures, 0, newTextures, 0, size);
+			actors = newActors;
+			textures = newTextures;
+			drawn = new boolean[capacity];
+		}
+
+		actors[size] = a;
+		textures[size] = a.getRenderer().getTexture();
+		size++;
+	}
+
+	/**
+	 * Draws and clears the added actors.
+	 */
+	public void draw(SpriteBatch batch) {
+		int n = size;
+		SpriteActor[] list = actors;
+		Texture[] tex = textures;
+
+		for (int i = 0; i < n; i++)
+			drawn[i] = false;
+
+		int switchesInOrder = 0;
+		int switches = 0;
+		Texture last = null;
+
+		for (int i = 0; i < n; i++) {
+			if (i == 0 || tex[i] == null || tex[i] != tex[i - 1])
+				switchesInOrder++;
+		}
+
+		for (int i = 0; i < n; i++) {
+			if (drawn[i])
+				continue;
+
+			list[i].draw(batch);
+			drawn[i] = true;
+
+			if (tex[i] == null || tex[i] != last)
+				switches++;
+
+			last = tex[i];
+
+			if (last == null)
+				continue;
+
+			// draw now the next actors with the same texture that don't overlap the
+			// actors passed
+			skipped.clear();
+
+			for (int j = i + 1; j < n && skipped.size < MAX_LOOKAHEAD; j++) {
+				if (drawn[j])
+					continue;
+
+				if (tex[j] == null)
+					break;
+
+				Rectangle r = list[j].getDrawBounds();
+
+				if (tex[j] == last && !overlaps(r)) {
+					list[j].draw(batch);
+					drawn[j] = true;
+				} else {
+					skipped.add(r);
+				}
+			}
+		}
+
+		flushesSaved = switchesInOrder - switches;
+
+		// don't keep references to the actors
+		for (int i = 0; i < n; i++) {
+			list[i] = null;
+			tex[i] = null;
+		}
+
+		size = 0;
+		skipped.clear();
+	}
+
+	private boolean overlaps(Rectangle r) {
+		for (int i = 0; i < skipped.size; i++) {
+			if (skipped.get(i).overlaps(r))
+				return true;
+		}
+
+		return false;
+	}
+
+	public int getFlushesSaved() {
+		return flushesSaved;
+	}
+}
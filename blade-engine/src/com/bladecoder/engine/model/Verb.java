@@ -54,6 +54,9 @@ public class Verb implements VerbRunner, Serializable {
 
 	private ActionCallback cb;
 
+	/** Has been run, so the actions can have state */
+	private boolean modified;
+
 	public Verb() {
 	}
 
@@ -135,6 +138,7 @@ public class Verb implements VerbRunner, Serializable {
 		}
 
 		ip = 0;
+		modified = true;
 		nextStep();
 	}
 
@@ -191,6 +195,15 @@ public class Verb implements VerbRunner, Serializable {
 	@Override
 	public void setIP(int ip) {
 		this.ip = ip;
+		modified = true;
+	}
+
+	/**
+	 * @return true if the verb has been run. Then, it must be saved in the game
+	 *         state.
+	 */
+	public boolean isModified() {
+		return modified;
 	}
 
 	@Override
@@ -280,6 +293,7 @@ public class Verb implements VerbRunner, Serializable {
 			}
 		} else {
 			// MUTABLE
+			modified = true;
 			currentTarget = json.readValue("currentTarget", String.class, (String) null, jsonData);
 			ip = json.readValue("ip", Integer.class, jsonData);
 			cb = ActionCallbackSerializer.find(bjson.getWorld(), bjson.getScene(),
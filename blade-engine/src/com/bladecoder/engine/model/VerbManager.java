@@ -78,6 +78,30 @@ public class VerbManager implements Serializable {
 		return v;
 	}
 
+	/**
+	 * @return true if there is a verb with the id for any state or target.
+	 */
+	public boolean hasVerb(String id) {
+		for (String k : verbs.keySet()) {
+			if (k.startsWith(id) && (k.length() == id.length() || k.charAt(id.length()) == '.'))
+				return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return true if any verb has been run.
+	 */
+	public boolean isModified() {
+		for (Verb v : verbs.values()) {
+			if (v.isModified())
+				return true;
+		}
+
+		return false;
+	}
+
 	public HashMap<String, Verb> getVerbs() {
 		return verbs;
 	}
@@ -31,12 +31,17 @@ public class WalkZoneActor extends BaseActor {
 	public void update(float delta) {
 	}
 
+	@Override
+	public boolean needsUpdate() {
+		return false;
+	}
+
 	@Override
 	public void setPosition(float x, float y) {
 		getBBox().setPosition(x, y);
 
 		if (scene != null && id.equals(scene.getWalkZone())) {
-			scene.getPolygonalNavGraph().createInitialGraph(this, scene.getActors().values());
+			scene.getPathFinder().createInitialGraph(this, scene.getActors().values());
 		}
 	}
 
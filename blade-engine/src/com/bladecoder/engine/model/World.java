@@ -33,9 +33,11 @@ import com.bladecoder.engine.assets.AssetConsumer;
 import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.i18n.I18N;
 import com.bladecoder.engine.ink.InkManager;
+import com.bladecoder.engine.polygonalpathfinder.AsyncPathFinder;
 import com.bladecoder.engine.serialization.WorldSerialization;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.FileUtils;
+import com.bladecoder.engine.util.FrameStats;
 
 import java.io.IOException;
 import java.nio.IntBuffer;
@@ -99,11 +101,15 @@ public class World implements AssetConsumer {
 
     // ------------ LAZY CREATED OBJECTS ------------
     private InkManager inkManager;
+    transient private AsyncPathFinder asyncPathFinder;
 
     // ------------ TRANSIENT OBJECTS ------------
     private AssetState assetState;
     transient private SpriteBatch spriteBatch;
 
+    // render and timing counters shown in the debug screen
+    transient private final FrameStats frameStats = new FrameStats();
+
     // for debug purposes, keep track of loading time
     private long initLoadingTime;
 
@@ -135,6 +141,7 @@ public class World implements AssetConsumer {
         setCurrentInventory(DEFAULT_INVENTORY);
 
         scenes.clear();
+        serialization.clearChapterIndex();
         sounds.clear();
 
         uiActors = new UIActors(this);
@@ -145,8 +152,6 @@ public class World implements AssetConsumer {
 
         customProperties.clear();
 
-        spriteBatch = new SpriteBatch();
-
         transition = new Transition();
 
         musicManager = new MusicManager();
@@ -164,6 +169,21 @@ public class World implements AssetConsumer {
         return listener;
     }
 
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * The path finder used by the characters when the 'async_pathfinding' property
+     * is enabled. Created when needed.
+     */
+    public AsyncPathFinder getAsyncPathFinder() {
+        if (asyncPathFinder == null)
+            asyncPathFinder = new AsyncPathFinder();
+
+        return asyncPathFinder;
+    }
+
     public WorldSerialization getSerializer() {
         return serialization;
     }
@@ -220,14 +240,37 @@ public class World implements AssetConsumer {
         return sounds;
     }
 
+    /**
+     * The batch is created in the first draw so the world can be updated without
+     * a GL context.
+     */
+    public SpriteBatch getSpriteBatch() {
+        if (spriteBatch == null)
+            spriteBatch = new SpriteBatch();
+
+        return spriteBatch;
+    }
+
     public void draw() {
         if (assetState == AssetState.LOADED) {
-            getCurrentScene().draw(spriteBatch);
-            uiActors.draw(spriteBatch);
+            SpriteBatch batch = getSpriteBatch();
+
+            frameStats.beginDraw(batch);
+
+            getCurrentScene().draw(batch);
+            uiActors.draw(batch);
+
+            frameStats.endDraw(batch, getCurrentScene());
         }
     }
 
     public void update(float delta) {
+        frameStats.beginUpdate();
+        updateWorld(delta);
+        frameStats.endUpdate();
+    }
+
+    private void updateWorld(float delta) {
         if (assetState == AssetState.LOAD_ASSETS || assetState == AssetState.LOAD_ASSETS_AND_INIT_SCENE) {
             loadAssets();
 
@@ -274,6 +317,16 @@ public class World implements AssetConsumer {
 
         timeOfGame += delta * 1000f;
 
+        // start the walks of the paths found in the background
+        if (asyncPathFinder != null)
+            asyncPathFinder.update();
+
+        // advance the loading of the background pages requested while drawing
+        StreamedBackground streamedBackground = getCurrentScene().getStreamedBackground();
+
+        if (streamedBackground != null && streamedBackground.isLoading())
+            EngineAssetManager.getInstance().update();
+
         getCurrentScene().update(delta);
 
         uiActors.update(delta);
@@ -437,6 +490,7 @@ public class World implements AssetConsumer {
         }
 
         currentScene = scene;
+        currentScene.setVisited();
         this.initVerb = initVerb;
 
         musicManager.leaveScene(currentScene.getMusicDesc());
@@ -462,11 +516,33 @@ public class World implements AssetConsumer {
         scenes.put(scene.getId(), scene);
     }
 
+    /**
+     * The scenes of the chapter are created the first time they are requested.
+     */
     public Scene getScene(String id) {
-        return scenes.get(id);
+        Scene s = scenes.get(id);
+
+        if (s == null)
+            s = serialization.loadScene(id);
+
+        return s;
     }
 
+    /**
+     * @return all the scenes of the chapter. The scenes not used yet are created,
+     *         use getCreatedScenes() when they are not needed.
+     */
     public Map<String, Scene> getScenes() {
+        serialization.loadAllScenes();
+
+        return scenes;
+    }
+
+    /**
+     * @return the scenes of the chapter used until now. The rest of scenes have
+     *         their model values.
+     */
+    public Map<String, Scene> getCreatedScenes() {
         return scenes;
     }
 
@@ -481,7 +557,7 @@ public class World implements AssetConsumer {
         if (id.equals("$" + WorldProperties.PREVIOUS_SCENE))
             id = getCustomProperty(WorldProperties.PREVIOUS_SCENE.toString());
 
-        Scene s = scenes.get(id);
+        Scene s = getScene(id);
 
         if (s != null) {
             setCurrentScene(s, init, initVerb);
@@ -597,6 +673,9 @@ public class World implements AssetConsumer {
     @Override
     public void dispose() {
 
+        // the game can be exiting after an autosave
+        serialization.waitForSaves();
+
         if (isDisposed())
             return;
 
@@ -606,6 +685,9 @@ public class World implements AssetConsumer {
 
             transition.reset();
 
+            // restores the GL calls intercepted by the profiler
+            frameStats.setEnabled(false);
+
             // ONLY dispose currentscene because other scenes are already
             // disposed
             if (currentScene != null) {
@@ -623,7 +705,10 @@ public class World implements AssetConsumer {
             getInventory().dispose();
             uiActors.dispose();
 
-            spriteBatch.dispose();
+            if (spriteBatch != null) {
+                spriteBatch.dispose();
+                spriteBatch = null;
+            }
 
             assetState = null;
 
@@ -631,6 +716,11 @@ public class World implements AssetConsumer {
 
             inkManager = null;
 
+            if (asyncPathFinder != null) {
+                asyncPathFinder.dispose();
+                asyncPathFinder = null;
+            }
+
         } catch (Exception e) {
             EngineLogger.error(e.getMessage());
         }
@@ -698,6 +788,10 @@ public class World implements AssetConsumer {
     public void resume() {
         paused = false;
 
+        // the layer images are lost with the GL context
+        if (currentScene != null)
+            currentScene.invalidateLayerCaches();
+
         if (assetState == AssetState.LOADED) {
             if (currentScene != null) {
                 musicManager.resumeMusic();
@@ -732,10 +826,13 @@ public class World implements AssetConsumer {
         // Only take screenshot for desktop. For iOs or Android is slow.
         boolean takeScreenshot = Gdx.app.getType() == ApplicationType.Desktop;
 
-        serialization.saveGameState(GAMESTATE_FILENAME, takeScreenshot);
+        // in background to not stop the game when pausing
+        serialization.saveGameStateAsync(GAMESTATE_FILENAME, takeScreenshot, null);
     }
 
     public void removeGameState(String filename) throws IOException {
+        serialization.waitForSaves();
+
         EngineAssetManager.getInstance().getUserFile(filename).delete();
         EngineAssetManager.getInstance().getUserFile(filename + ".png").delete();
     }
@@ -809,6 +906,19 @@ public class World implements AssetConsumer {
     }
 
     public void takeScreenshot(String filename, int w) {
+        Pixmap pixmap = takeScreenshotPixmap(w);
+
+        PixmapIO.writePNG(EngineAssetManager.getInstance().getUserFile(filename), pixmap, Deflater.DEFAULT_COMPRESSION,
+                true);
+
+        pixmap.dispose();
+    }
+
+    /**
+     * Renders the world in a pixmap of the specified width. Must be called from
+     * the render thread.
+     */
+    public Pixmap takeScreenshotPixmap(int w) {
 
         // get viewport
         IntBuffer results = BufferUtils.newIntBuffer(16);
@@ -829,9 +939,8 @@ public class World implements AssetConsumer {
         // restore viewport
         fbo.end(results.get(0), results.get(1), results.get(2), results.get(3));
 
-        PixmapIO.writePNG(EngineAssetManager.getInstance().getUserFile(filename), pixmap, Deflater.DEFAULT_COMPRESSION,
-                true);
-
         fbo.dispose();
+
+        return pixmap;
     }
 }
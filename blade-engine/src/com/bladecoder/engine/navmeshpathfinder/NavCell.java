@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.navmeshpathfinder;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.bladecoder.engine.pathfinder.NavNode;
+
+/**
+ * A convex cell of the {@link NavMesh}: a trapezoid with vertical left and
+ * right sides.
+ *
+ * The cells are connected through their vertical sides. For every neighbor,
+ * the portal is stored as the x of the side and the bottom and top y of the
+ * shared segment.
+ *
+ * @author rgarcia
+ */
+public class NavCell extends NavNode<NavCell> {
+	float x0, x1;
+
+	/** y of the bottom and top edges at x0 and x1 */
+	float bottom0, bottom1;
+	float top0, top1;
+
+	/** Edge indexes in the mesh */
+	final int bottomEdge, topEdge;
+
+	float centerX, centerY;
+
+	/** Position in the cells of the mesh */
+	int index;
+
+	/** x, bottom y and top y of the portal to every neighbor */
+	final FloatArray portals = new FloatArray();
+
+	NavCell(float x0, float x1, int bottomEdge, int topEdge) {
+		this.x0 = x0;
+		this.x1 = x1;
+		this.bottomEdge = bottomEdge;
+		this.topEdge = topEdge;
+	}
+
+	void connect(NavCell c, float x, float bottom, float top) {
+		neighbors.add(c);
+		portals.add(x, bottom, top);
+
+		c.neighbors.add(this);
+		c.portals.add(x, bottom, top);
+	}
+
+	public float getX0() {
+		return x0;
+	}
+
+	public float getX1() {
+		return x1;
+	}
+
+	public float getBottom0() {
+		return bottom0;
+	}
+
+	public float getBottom1() {
+		return bottom1;
+	}
+
+	public float getTop0() {
+		return top0;
+	}
+
+	public float getTop1() {
+		return top1;
+	}
+
+	public float getCenterX() {
+		return centerX;
+	}
+
+	public float getCenterY() {
+		return centerY;
+	}
+}
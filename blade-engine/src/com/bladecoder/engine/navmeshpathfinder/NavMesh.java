@@ -0,0 +1,429 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.navmeshpathfinder;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.badlogic.gdx.math.Intersector;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Decomposition of the walkzone minus the obstacles in convex cells.
+ *
+ * The area is cut in vertical slabs at every vertex and at every intersection
+ * between edges. Inside a slab no edge ends or crosses another edge, so the
+ * edges crossing the slab divide it in trapezoids. A trapezoid is walkable if
+ * it is inside the walkzone and outside all the obstacles, which is known by
+ * counting the edges below it. Overlapped obstacles are supported.
+ *
+ * Trapezoids in consecutive slabs between the same two edges are merged in one
+ * cell.
+ *
+ * The mesh is not modified after it is created, so several threads can search
+ * it at the same time.
+ *
+ * @author rgarcia
+ */
+public class NavMesh {
+	/** Tolerance to merge near coordinates and to discard thin cells */
+	private static final float EPSILON = 0.01f;
+
+	/** x1, y1, x2, y2 of every non vertical edge with x1 < x2 */
+	private final FloatArray edges = new FloatArray();
+
+	/** 0 for the walkzone edges. i + 1 for the edges of the obstacle i. */
+	private final IntArray owners = new IntArray();
+
+	/** Sorted x of the slab boundaries */
+	private final float[] xs;
+
+	/** Cells in every slab */
+	private final Array<Array<NavCell>> slabs = new Array<>();
+
+	private final Array<NavCell> cells = new Array<>();
+
+	public NavMesh(Polygon walkZone, List<Polygon> obstacles) {
+		FloatArray xCoords = new FloatArray();
+
+		addEdges(walkZone, 0, xCoords);
+
+		for (int i = 0; i < obstacles.size(); i++)
+			addEdges(obstacles.get(i), i + 1, xCoords);
+
+		int[] sortedEdges = sortEdgesByX();
+
+		addIntersections(sortedEdges, xCoords);
+
+		xs = mergeCoords(xCoords);
+
+		createCells(sortedEdges, obstacles.size() + 1);
+	}
+
+	public Array<NavCell> getCells() {
+		return cells;
+	}
+
+	/**
+	 * @return the cell that contains the point or null if the point is not in
+	 *         the walkable area.
+	 */
+	public NavCell findCell(float x, float y) {
+		int s = findSlab(x);
+
+		if (s == -1)
+			return null;
+
+		Array<NavCell> slab = slabs.get(s);
+
+		for (int i = 0; i < slab.size; i++) {
+			NavCell c = slab.get(i);
+
+			if (y >= yAt(c.bottomEdge, x) - EPSILON && y <= yAt(c.topEdge, x) + EPSILON)
+				return c;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Search the nearest point of the walkable area.
+	 *
+	 * @param out the nearest point.
+	 * @return the cell of the nearest point or null if the mesh is empty.
+	 */
+	public NavCell getClosestCell(float x, float y, Vector2 out) {
+		NavCell best = null;
+		float bestDist = Float.MAX_VALUE;
+
+		for (int i = 0; i < cells.size; i++) {
+			NavCell c = cells.get(i);
+
+			// sides: bottom, right, top, left
+			for (int side = 0; side < 4; side++) {
+				float ax = side == 0 || side == 3 ? c.x0 : c.x1;
+				float ay = side == 0 ? c.bottom0 : side == 1 ? c.bottom1 : side == 2 ? c.top1 : c.top0;
+				float bx = side == 0 || side == 1 ? c.x1 : c.x0;
+				float by = side == 0 ? c.bottom1 : side == 1 ? c.top1 : side == 2 ? c.top0 : c.bottom0;
+
+				float dx = bx - ax;
+				float dy = by - ay;
+				float len2 = dx * dx + dy * dy;
+				float t = len2 == 0 ? 0 : ((x - ax) * dx + (y - ay) * dy) / len2;
+				t = Math.max(0, Math.min(1, t));
+
+				float px = ax + t * dx;
+				float py = ay + t * dy;
+				float dist = (px - x) * (px - x) + (py - y) * (py - y);
+
+				if (dist < bestDist) {
+					bestDist = dist;
+					best = c;
+					out.set(px, py);
+				}
+			}
+		}
+
+		return best;
+	}
+
+	private void addEdges(Polygon p, int owner, FloatArray xCoords) {
+		float[] verts = p.getTransformedVertices();
+
+		for (int i = 0; i < verts.length; i += 2) {
+			float ax = verts[i];
+			float ay = verts[i + 1];
+			float bx = verts[(i + 2) % verts.length];
+			float by = verts[(i + 3) % verts.length];
+
+			xCoords.add(ax);
+
+			// vertical edges are in the slab boundaries and don't cross any slab
+			if (Math.abs(ax - bx) < EPSILON)
+				continue;
+
+			if (ax < bx)
+				edges.add(ax, ay, bx, by);
+			else
+				edges.add(bx, by, ax, ay);
+
+			owners.add(owner);
+		}
+	}
+
+	private int[] sortEdgesByX() {
+		Integer[] sorted = new Integer[owners.size];
+
+		for (int i = 0; i < sorted.length; i++)
+			sorted[i] = i;
+
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer e1, Integer e2) {
+				return Float.compare(x1(e1), x1(e2));
+			}
+		});
+
+		int[] result = new int[sorted.length];
+
+		for (int i = 0; i < sorted.length; i++)
+			result[i] = sorted[i];
+
+		return result;
+	}
+
+	/**
+	 * Adds the x of the intersections between edges. Only the edges that overlap
+	 * in the x axis are tested.
+	 */
+	private void addIntersections(int[] sortedEdges, FloatArray xCoords) {
+		IntArray active = new IntArray();
+		Vector2 intersection = new Vector2();
+
+		for (int e : sortedEdges) {
+			float ex1 = x1(e);
+
+			for (int i = active.size - 1; i >= 0; i--) {
+				if (x2(active.get(i)) < ex1)
+					active.removeIndex(i);
+			}
+
+			int idx = e * 4;
+
+			for (int i = 0; i < active.size; i++) {
+				int idx2 = active.get(i) * 4;
+
+				if (Intersector.intersectSegments(edges.get(idx), edges.get(idx + 1), edges.get(idx + 2),
+						edges.get(idx + 3), edges.get(idx2), edges.get(idx2 + 1), edges.get(idx2 + 2),
+						edges.get(idx2 + 3), intersection))
+					xCoords.add(intersection.x);
+			}
+
+			active.add(e);
+		}
+	}
+
+	private static float[] mergeCoords(FloatArray coords) {
+		coords.sort();
+
+		FloatArray merged = new FloatArray(coords.size);
+
+		for (int i = 0; i < coords.size; i++) {
+			float x = coords.get(i);
+
+			if (merged.size == 0 || x - merged.peek() > EPSILON)
+				merged.add(x);
+		}
+
+		return merged.toArray();
+	}
+
+	private void createCells(int[] sortedEdges, int numOwners) {
+		boolean[] inside = new boolean[numOwners];
+
+		// edges crossing the current slab sorted by y
+		IntArray active = new IntArray();
+		int next = 0;
+
+		// cells of the previous and current slab sorted by y
+		Array<NavCell> open = new Array<>();
+		Array<NavCell> newOpen = new Array<>();
+		LongMap<NavCell> openByEdges = new LongMap<>();
+		LongMap<NavCell> newOpenByEdges = new LongMap<>();
+
+		Array<NavCell> ending = new Array<>();
+		Array<NavCell> starting = new Array<>();
+
+		for (int s = 0; s < xs.length - 1; s++) {
+			float sx0 = xs[s];
+			float sx1 = xs[s + 1];
+			float xm = (sx0 + sx1) / 2;
+
+			for (int i = active.size - 1; i >= 0; i--) {
+				if (x2(active.get(i)) < xm)
+					active.removeIndex(i);
+			}
+
+			while (next < sortedEdges.length && x1(sortedEdges[next]) < xm) {
+				int e = sortedEdges[next++];
+
+				if (x2(e) > xm)
+					active.add(e);
+			}
+
+			// insertion sort. The order barely changes between slabs.
+			for (int i = 1; i < active.size; i++) {
+				int e = active.get(i);
+				float y = yAt(e, xm);
+				int j = i - 1;
+
+				while (j >= 0 && yAt(active.get(j), xm) > y) {
+					active.set(j + 1, active.get(j));
+					j--;
+				}
+
+				active.set(j + 1, e);
+			}
+
+			Array<NavCell> slab = new Array<>();
+			slabs.add(slab);
+
+			newOpen.clear();
+			newOpenByEdges.clear();
+			starting.clear();
+			ending.clear();
+
+			boolean inWalkZone = false;
+			int insideObstacles = 0;
+
+			for (int i = 0; i < active.size - 1; i++) {
+				int e = active.get(i);
+				int owner = owners.get(e);
+
+				inside[owner] = !inside[owner];
+
+				if (owner == 0)
+					inWalkZone = inside[0];
+				else
+					insideObstacles += inside[owner] ? 1 : -1;
+
+				if (!inWalkZone || insideObstacles > 0)
+					continue;
+
+				int top = active.get(i + 1);
+
+				if (yAt(top, xm) - yAt(e, xm) < EPSILON)
+					continue;
+
+				long key = ((long) e << 32) | top;
+				NavCell c = openByEdges.remove(key);
+
+				if (c == null) {
+					c = new NavCell(sx0, sx1, e, top);
+					cells.add(c);
+					starting.add(c);
+				} else {
+					c.x1 = sx1;
+				}
+
+				newOpen.add(c);
+				newOpenByEdges.put(key, c);
+				slab.add(c);
+			}
+
+			Arrays.fill(inside, false);
+
+			// the cells not continued end in this slab boundary
+			for (NavCell c : open) {
+				if (openByEdges.containsKey(((long) c.bottomEdge << 32) | c.topEdge))
+					ending.add(c);
+			}
+
+			connect(ending, starting, sx0);
+
+			Array<NavCell> tmp = open;
+			open = newOpen;
+			newOpen = tmp;
+
+			LongMap<NavCell> tmpMap = openByEdges;
+			openByEdges = newOpenByEdges;
+			newOpenByEdges = tmpMap;
+		}
+
+		for (int i = 0; i < cells.size; i++) {
+			NavCell c = cells.get(i);
+			c.index = i;
+			c.bottom0 = yAt(c.bottomEdge, c.x0);
+			c.bottom1 = yAt(c.bottomEdge, c.x1);
+			c.top0 = yAt(c.topEdge, c.x0);
+			c.top1 = yAt(c.topEdge, c.x1);
+
+			c.centerX = (c.x0 + c.x1) / 2;
+			c.centerY = (c.bottom0 + c.bottom1 + c.top0 + c.top1) / 4;
+		}
+	}
+
+	/**
+	 * Connects the cells ending in the x boundary with the cells starting in it.
+	 * Both lists are sorted by y.
+	 */
+	private void connect(Array<NavCell> ending, Array<NavCell> starting, float x) {
+		int i = 0;
+		int j = 0;
+
+		while (i < ending.size && j < starting.size) {
+			NavCell a = ending.get(i);
+			NavCell b = starting.get(j);
+
+			float aTop = yAt(a.topEdge, x);
+			float bTop = yAt(b.topEdge, x);
+
+			float bottom = Math.max(yAt(a.bottomEdge, x), yAt(b.bottomEdge, x));
+			float top = Math.min(aTop, bTop);
+
+			if (top - bottom > EPSILON)
+				a.connect(b, x, bottom, top);
+
+			if (aTop < bTop)
+				i++;
+			else
+				j++;
+		}
+	}
+
+	private int findSlab(float x) {
+		if (xs.length < 2 || x < xs[0] || x > xs[xs.length - 1])
+			return -1;
+
+		int lo = 0;
+		int hi = xs.length - 2;
+
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+
+			if (xs[mid] <= x)
+				lo = mid;
+			else
+				hi = mid - 1;
+		}
+
+		return lo;
+	}
+
+	private float x1(int e) {
+		return edges.get(e * 4);
+	}
+
+	private float x2(int e) {
+		return edges.get(e * 4 + 2);
+	}
+
+	private float yAt(int e, float x) {
+		int idx = e * 4;
+		float x1 = edges.get(idx);
+		float y1 = edges.get(idx + 1);
+		float x2 = edges.get(idx + 2);
+		float y2 = edges.get(idx + 3);
+
+		return y1 + (x - x1) * (y2 - y1) / (x2 - x1);
+	}
+}
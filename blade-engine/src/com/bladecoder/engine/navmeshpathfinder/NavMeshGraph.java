@@ -0,0 +1,421 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.navmeshpathfinder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.bladecoder.engine.model.BaseActor;
+import com.bladecoder.engine.model.ObstacleActor;
+import com.bladecoder.engine.pathfinder.AStarPathFinder;
+import com.bladecoder.engine.pathfinder.AStarPathFinder.AStarHeuristicCalculator;
+import com.bladecoder.engine.pathfinder.NavContext;
+import com.bladecoder.engine.pathfinder.NavGraph;
+import com.bladecoder.engine.pathfinder.WalkZonePathFinder;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Finds paths in a navigation mesh of the walkzone minus the obstacles.
+ *
+ * The A* search is done over the convex cells of the {@link NavMesh}, so it is
+ * fast even for big walkzones with a lot of obstacles. The path is obtained
+ * from the corridor of cells with the funnel algorithm.
+ *
+ * The mesh is created again, the first time a path is searched, when the
+ * walkzone or the obstacles change.
+ *
+ * @author rgarcia
+ */
+public class NavMeshGraph implements NavGraph<NavCell>, WalkZonePathFinder {
+	private Polygon walkZone;
+	private final ArrayList<Polygon> obstacles = new ArrayList<>();
+
+	/** null when the walkzone or the obstacles have changed */
+	private NavMesh mesh;
+
+	final private AStarPathFinder<NavCell> pathfinder = new AStarPathFinder<>(this, 0, new TargetDistance());
+
+	/** Copy of the graph for the searches in other threads */
+	private NavMeshGraph snapshot;
+
+	/** Queries used by the searches without query */
+	private final Array<NavMeshQuery> freeQueries = new Array<>();
+
+	@Override
+	public void createInitialGraph(BaseActor wz, Collection<BaseActor> actors) {
+		obstacles.clear();
+		setDirty();
+
+		if (wz == null) {
+			walkZone = null;
+			return;
+		}
+
+		walkZone = wz.getBBox();
+
+		for (BaseActor a : actors) {
+			if (a instanceof ObstacleActor && a.isVisible())
+				obstacles.add(a.getBBox());
+		}
+	}
+
+	@Override
+	public Polygon getWalkZone() {
+		return walkZone;
+	}
+
+	@Override
+	public void addDinamicObstacle(Polygon poly) {
+		if (walkZone == null || obstacles.contains(poly))
+			return;
+
+		obstacles.add(poly);
+		setDirty();
+	}
+
+	@Override
+	public boolean removeDinamicObstacle(Polygon poly) {
+		if (!obstacles.remove(poly))
+			return false;
+
+		setDirty();
+
+		return true;
+	}
+
+	private void setDirty() {
+		mesh = null;
+		snapshot = null;
+	}
+
+	/**
+	 * @return the mesh for the current walkzone and obstacles or null if there is
+	 *         no walkzone.
+	 */
+	public NavMesh getNavMesh() {
+		if (mesh == null && walkZone != null) {
+			long t0 = System.nanoTime();
+
+			mesh = new NavMesh(walkZone, obstacles);
+
+			EngineLogger.debug("NavMeshGraph: " + mesh.getCells().size + " cells created in "
+					+ (System.nanoTime() - t0) / 1000 + "us");
+		}
+
+		return mesh;
+	}
+
+	/**
+	 * Returns a graph that shares the current mesh and doesn't change when the
+	 * walkzone or the obstacles of this graph change, to search paths in other
+	 * threads. The snapshot is reused until this graph changes.
+	 *
+	 * The snapshot must not be modified.
+	 */
+	@Override
+	public NavMeshGraph getSnapshot() {
+		if (snapshot == null) {
+			snapshot = new NavMeshGraph();
+
+			if (walkZone != null) {
+				snapshot.walkZone = new Polygon(walkZone.getTransformedVertices().clone());
+				snapshot.mesh = getNavMesh();
+			}
+		}
+
+		return snapshot;
+	}
+
+	@Override
+	public boolean findPath(float sx, float sy, float tx, float ty, FloatArray out) {
+		NavMeshQuery query;
+
+		synchronized (freeQueries) {
+			query = freeQueries.size > 0 ? freeQueries.pop() : new NavMeshQuery();
+		}
+
+		try {
+			return findPath(query, sx, sy, tx, ty, out);
+		} finally {
+			synchronized (freeQueries) {
+				freeQueries.add(query);
+			}
+		}
+	}
+
+	/**
+	 * Finds the path between 2 points storing the search state in the query. The
+	 * points outside the walkable area are moved to the nearest walkable point.
+	 *
+	 * @param query the search state. Only one search can use it at a time.
+	 * @param out   cleared and filled with the points of the path as xy pairs.
+	 * @return false if there is no path.
+	 */
+	public boolean findPath(NavMeshQuery query, float sx, float sy, float tx, float ty, FloatArray out) {
+		out.clear();
+
+		NavMesh mesh = getNavMesh();
+
+		if (mesh == null)
+			return false;
+
+		final Vector2 source = query.source;
+		final Vector2 target = query.target;
+
+		source.set(sx, sy);
+		target.set(tx, ty);
+
+		NavCell startCell = mesh.findCell(sx, sy);
+
+		if (startCell == null)
+			startCell = mesh.getClosestCell(sx, sy, source);
+
+		NavCell targetCell = mesh.findCell(tx, ty);
+
+		if (targetCell == null)
+			targetCell = mesh.getClosestCell(tx, ty, target);
+
+		if (startCell == null || targetCell == null) {
+			EngineLogger.debug("NavMeshGraph: Empty walkable area!");
+			return false;
+		}
+
+		if (startCell == targetCell) {
+			out.add(source.x, source.y, target.x, target.y);
+			return true;
+		}
+
+		query.targetCell = targetCell;
+		query.entries.setSize(mesh.getCells().size * 2);
+
+		boolean found = pathfinder.findPath(query, null, startCell, targetCell, query);
+
+		if (found)
+			stringPull(query, out);
+
+		query.corridor.clear();
+
+		return found;
+	}
+
+	/**
+	 * Funnel algorithm. Finds the shortest path through the portals of the
+	 * corridor.
+	 */
+	private static void stringPull(NavMeshQuery query, FloatArray out) {
+		final FloatArray p = query.portals;
+		final Array<NavCell> corridor = query.corridor;
+
+		p.clear();
+		p.add(query.source.x, query.source.y, query.source.x, query.source.y);
+
+		for (int i = 0; i < corridor.size - 1; i++) {
+			NavCell a = corridor.get(i);
+			NavCell b = corridor.get(i + 1);
+			int k = a.neighbors.indexOf(b, true) * 3;
+
+			float x = a.portals.get(k);
+			float bottom = a.portals.get(k + 1);
+			float top = a.portals.get(k + 2);
+
+			// when going right the top is at the left side
+			if (b.x0 >= a.x1)
+				p.add(x, top, x, bottom);
+			else
+				p.add(x, bottom, x, top);
+		}
+
+		p.add(query.target.x, query.target.y, query.target.x, query.target.y);
+
+		float apexX = p.get(0), apexY = p.get(1);
+		float leftX = apexX, leftY = apexY;
+		float rightX = apexX, rightY = apexY;
+		int apexIndex = 0, leftIndex = 0, rightIndex = 0;
+
+		addPoint(out, apexX, apexY);
+
+		int n = p.size / 4;
+
+		for (int i = 1; i < n; i++) {
+			float lx = p.get(i * 4);
+			float ly = p.get(i * 4 + 1);
+			float rx = p.get(i * 4 + 2);
+			float ry = p.get(i * 4 + 3);
+
+			// Update the right side of the funnel
+			if (cross(apexX, apexY, rightX, rightY, rx, ry) >= 0) {
+				if ((apexX == rightX && apexY == rightY) || cross(apexX, apexY, leftX, leftY, rx, ry) < 0) {
+					// Tighten the funnel
+					rightX = rx;
+					rightY = ry;
+					rightIndex = i;
+				} else {
+					// Right over left, the left point is a new corner of the path
+					apexX = leftX;
+					apexY = leftY;
+					apexIndex = leftIndex;
+
+					addPoint(out, apexX, apexY);
+
+					rightX = apexX;
+					rightY = apexY;
+					rightIndex = apexIndex;
+
+					i = apexIndex;
+					continue;
+				}
+			}
+
+			// Update the left side of the funnel
+			if (cross(apexX, apexY, leftX, leftY, lx, ly) <= 0) {
+				if ((apexX == leftX && apexY == leftY) || cross(apexX, apexY, rightX, rightY, lx, ly) > 0) {
+					// Tighten the funnel
+					leftX = lx;
+					leftY = ly;
+					leftIndex = i;
+				} else {
+					// Left over right, the right point is a new corner of the path
+					apexX = rightX;
+					apexY = rightY;
+					apexIndex = rightIndex;
+
+					addPoint(out, apexX, apexY);
+
+					leftX = apexX;
+					leftY = apexY;
+					leftIndex = apexIndex;
+
+					i = apexIndex;
+					continue;
+				}
+			}
+		}
+
+		addPoint(out, query.target.x, query.target.y);
+
+		// a path always has the source and the target points
+		if (out.size == 2)
+			out.add(out.get(0), out.get(1));
+	}
+
+	/**
+	 * @return > 0 if c is at the left of the a->b line, < 0 if it is at the right.
+	 */
+	private static float cross(float ax, float ay, float bx, float by, float cx, float cy) {
+		return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+	}
+
+	private static void addPoint(FloatArray out, float x, float y) {
+		if (out.size > 0 && out.get(out.size - 2) == x && out.get(out.size - 1) == y)
+			return;
+
+		out.add(x, y);
+	}
+
+	/**
+	 * Called when the cell is expanded, its parent doesn't change anymore. Sets
+	 * the entry point of the cell in the portal from the parent, the same point
+	 * used by getCost().
+	 */
+	@Override
+	public Array<NavCell> getNeighbors(NavContext<NavCell> context, NavCell node) {
+		NavMeshQuery query = (NavMeshQuery) context;
+		NavCell parent = context.getParent(node);
+		float[] entries = query.entries.items;
+
+		if (parent == null) {
+			entries[node.index * 2] = query.source.x;
+			entries[node.index * 2 + 1] = query.source.y;
+		} else {
+			int k = parent.neighbors.indexOf(node, true) * 3;
+			float px = parent.portals.get(k);
+
+			entries[node.index * 2] = px;
+			entries[node.index * 2 + 1] = portalEntry(query, entries[parent.index * 2], entries[parent.index * 2 + 1],
+					px, parent.portals.get(k + 1), parent.portals.get(k + 2));
+		}
+
+		return node.neighbors;
+	}
+
+	@Override
+	public boolean blocked(NavContext<NavCell> context, NavCell targetNode) {
+		return false;
+	}
+
+	/**
+	 * Distance from the entry point of the source cell to the entry point of the
+	 * target cell. The centers of tall cells can be far from the path, costing
+	 * by the centers finds long detours.
+	 */
+	@Override
+	public float getCost(NavContext<NavCell> context, NavCell targetNode) {
+		NavMeshQuery query = (NavMeshQuery) context;
+		NavCell sourceNode = context.getSourceNode();
+		float[] entries = query.entries.items;
+
+		float ex = entries[sourceNode.index * 2];
+		float ey = entries[sourceNode.index * 2 + 1];
+
+		int k = sourceNode.neighbors.indexOf(targetNode, true) * 3;
+		float px = sourceNode.portals.get(k);
+		float py = portalEntry(query, ex, ey, px, sourceNode.portals.get(k + 1), sourceNode.portals.get(k + 2));
+
+		float cost = Vector2.dst(ex, ey, px, py);
+
+		if (targetNode == query.targetCell)
+			cost += Vector2.dst(px, py, query.target.x, query.target.y);
+
+		return cost;
+	}
+
+	/**
+	 * The y where the line from the entry point to the target crosses the portal,
+	 * clamped to the portal.
+	 */
+	private static float portalEntry(NavMeshQuery query, float ex, float ey, float px, float bottom, float top) {
+		float tx = query.target.x;
+		float ty = query.target.y;
+		float y = ey;
+
+		if ((px - ex) * (tx - px) > 0)
+			y = ey + (ty - ey) * (px - ex) / (tx - ex);
+
+		return MathUtils.clamp(y, bottom, top);
+	}
+
+	/**
+	 * Distance from the cell bounds to the target point. It is never greater than
+	 * the cost from any point of the cell.
+	 */
+	private static class TargetDistance implements AStarHeuristicCalculator<NavCell> {
+		@Override
+		public float getCost(NavContext<NavCell> map, Object mover, NavCell startNode, NavCell targetNode) {
+			Vector2 target = ((NavMeshQuery) map).target;
+
+			float x = MathUtils.clamp(target.x, startNode.x0, startNode.x1);
+			float y = MathUtils.clamp(target.y, Math.min(startNode.bottom0, startNode.bottom1),
+					Math.max(startNode.top0, startNode.top1));
+
+			return Vector2.dst(x, y, target.x, target.y);
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.navmeshpathfinder;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.bladecoder.engine.pathfinder.AStarContext;
+import com.bladecoder.engine.pathfinder.NavContext;
+import com.bladecoder.engine.pathfinder.NavPath;
+
+/**
+ * The state of a path search in a {@link NavMeshGraph}. The query is also the
+ * path of the A* search: the corridor of cells from the start to the target
+ * cell.
+ *
+ * Every agent or thread can keep its own query to not create garbage.
+ *
+ * @author rgarcia
+ */
+public class NavMeshQuery extends AStarContext<NavCell> implements NavPath<NavCell> {
+	/** Cells from the start to the target cell */
+	final Array<NavCell> corridor = new Array<>();
+
+	/** Left x, left y, right x and right y of every portal in the corridor */
+	final FloatArray portals = new FloatArray();
+
+	final Vector2 source = new Vector2();
+	final Vector2 target = new Vector2();
+
+	NavCell targetCell;
+
+	/**
+	 * x and y of the point where the search enters every expanded cell, indexed
+	 * by the cell index. The costs are measured between these points.
+	 */
+	final FloatArray entries = new FloatArray();
+
+	@Override
+	public void fill(NavCell startNode, NavCell targetNode, NavContext<NavCell> context) {
+		corridor.clear();
+
+		NavCell current = targetNode;
+
+		while (current != startNode) {
+			corridor.add(current);
+			current = context.getParent(current);
+		}
+
+		corridor.add(startNode);
+		corridor.reverse();
+	}
+
+	@Override
+	public int getLength() {
+		return corridor.size;
+	}
+
+	@Override
+	public void clear() {
+		corridor.clear();
+	}
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.pathfinder;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BinaryHeap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/** The state of one {@link AStarPathFinder} search: the open list and the data of every reached node.
+ * <p>
+ * A context can only be used by one search at a time, but several contexts can search the same graph at the same time, e.g. one
+ * context for every agent or thread. The node data is reused between searches, so no garbage is created once the context has
+ * grown to the graph size.
+ * </p>
+ * <p>
+ * Graphs can extend this class to store the temporary nodes of the search.
+ * </p>
+ * @author rgarcia */
+public class AStarContext<N extends NavNode<N>> implements NavContext<N> {
+	/** The set of nodes that we do not yet consider fully searched */
+	final BinaryHeap<AStarAlgoData<N>> openList = new BinaryHeap<AStarAlgoData<N>>();
+
+	/** The data of the nodes reached in the current search */
+	private final ObjectMap<N, AStarAlgoData<N>> nodeData = new ObjectMap<N, AStarAlgoData<N>>();
+	/** All the data objects created by this context. The first 'used' are in use in the current search. */
+	private final Array<AStarAlgoData<N>> allData = new Array<AStarAlgoData<N>>();
+	private int used;
+
+	/** The mover going through the path */
+	private Object mover;
+	/** The distance searched so far */
+	int distance;
+	/** The current source node in the context */
+	N sourceNode;
+
+	/** Resets the state for a new search. */
+	void reset (Object mover) {
+		this.mover = mover;
+		distance = 0;
+		sourceNode = null;
+		openList.clear();
+		nodeData.clear();
+		used = 0;
+	}
+
+	/** Get the AStar data from the given node. It is created the first time the node is reached in the search. */
+	AStarAlgoData<N> getAlgoData (N node) {
+		AStarAlgoData<N> ad = nodeData.get(node);
+
+		if (ad == null) {
+			if (used < allData.size) {
+				ad = allData.get(used);
+			} else {
+				ad = new AStarAlgoData<N>();
+				allData.add(ad);
+			}
+
+			used++;
+
+			ad.reset(node);
+			nodeData.put(node, ad);
+		}
+
+		return ad;
+	}
+
+	@Override
+	public Object getMover () {
+		return mover;
+	}
+
+	@Override
+	public float getSearchDistance () {
+		return distance;
+	}
+
+	@Override
+	public N getSourceNode () {
+		return sourceNode;
+	}
+
+	@Override
+	public N getParent (N node) {
+		AStarAlgoData<N> ad = nodeData.get(node);
+
+		return ad == null ? null : ad.parent;
+	}
+
+	static class AStarAlgoData<N> extends BinaryHeap.Node {
+		/** Backlink to the node. */
+		N node;
+		/** The node used to reach this node in the search */
+		N parent;
+		/** Heuristic from this node to the target. */
+		float heuristic;
+		/** Search depth to reach this node. */
+		int depth;
+		/** This node's cost. */
+		float cost;
+		/** In the open list */
+		boolean open;
+		/** In the closed list */
+		boolean closed;
+
+		public AStarAlgoData () {
+			super(0);
+		}
+
+		void reset (N node) {
+			this.node = node;
+			parent = null;
+			closed = false;
+			open = false;
+			cost = 0;
+			heuristic = 0;
+			depth = 0;
+		}
+	}
+}
@@ -15,33 +15,35 @@
  ******************************************************************************/
 package com.bladecoder.engine.pathfinder;
 
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.BinaryHeap;
+import com.bladecoder.engine.pathfinder.AStarContext.AStarAlgoData;
 
 /** A path finder that uses the AStar heuristic based algorithm to determine a path.
+ * <p>
+ * The path finder doesn't store any search state. The state is stored in an {@link AStarContext}, so several searches can be done
+ * at the same time in the same graph while the graph is not modified.
+ * </p>
  * <p>
  * Original implementation by Kevin Glass from Slick2D.
  * </p>
  * @author hneuer */
-public class AStarPathFinder<N extends NavNode<N>> implements NavContext<N>, PathFinder<N> {
-	/** The set of nodes that we do not yet consider fully searched */
-	private final BinaryHeap<AStarAlgoData> openList = new BinaryHeap<AStarAlgoData>();
+public class AStarPathFinder<N extends NavNode<N>> implements PathFinder<N> {
 	/** The graph being searched */
 	private final NavGraph<N> graph;
-	/** The maximum depth of search we're willing to accept before giving up */
+	/** The maximum depth of search we're willing to accept before giving up. 0 or less means no limit. */
 	private final int maxSearchDistance;
 	/** The heuristic we're applying to determine which nodes to search first */
 	private final AStarHeuristicCalculator<N> heuristicCalculator;
 
-	/** The mover going through the path */
-	private Object mover;
-	/** The distance searched so far */
-	private int distance;
-	/** Unique ID for each search run. Used to mark nodes. */
-	private int checkedID;
-	/** The current source node in the context (part of the NavContext implementation) */
-	private N sourceNodeInContext;
+	/** Contexts used by the searches without context */
+	private final Array<AStarContext<N>> freeContexts = new Array<AStarContext<N>>();
 
-	/** Create a path finder with a specific heuristic. */
+	/** Create a path finder with a specific heuristic.
+	 * <p>
+	 * The heuristic must never overestimate the real cost returned by the graph to get the shortest path. When the graph returns
+	 * the distance between nodes as cost, use the euclidean distance as heuristic and 0 as maxSearchDistance.
+	 * </p> */
 	public AStarPathFinder (NavGraph<N> graph, int maxSearchDistance, AStarHeuristicCalculator<N> heuristic) {
 		this.heuristicCalculator = heuristic;
 		this.graph = graph;
@@ -50,39 +52,56 @@ public class AStarPathFinder<N extends NavNode<N>> implements NavContext<N>, Pat
 
 	@Override
 	public boolean findPath (Object mover, N startNode, N targetNode, NavPath<N> out) {
-		this.mover = mover;
-		distance = 0;
+		AStarContext<N> context;
+
+		synchronized (freeContexts) {
+			context = freeContexts.size > 0 ? freeContexts.pop() : new AStarContext<N>();
+		}
+
+		try {
+			return findPath(context, mover, startNode, targetNode, out);
+		} finally {
+			synchronized (freeContexts) {
+				freeContexts.add(context);
+			}
+		}
+	}
 
-		if (isBlocked(targetNode, targetNode)) return false;
+	/** Find a path using the given context to store the search state.
+	 * 
+	 * @see PathFinder#findPath(Object, NavNode, NavNode, NavPath) */
+	public boolean findPath (AStarContext<N> context, Object mover, N startNode, N targetNode, NavPath<N> out) {
+		context.reset(mover);
 
-		checkedID++;
-		if (checkedID < 0) checkedID = 1;
+		if (isBlocked(context, targetNode, targetNode)) return false;
 
-		BinaryHeap<AStarAlgoData> openList = this.openList;
+		BinaryHeap<AStarAlgoData<N>> openList = context.openList;
 		AStarHeuristicCalculator<N> heuristicCalculator = this.heuristicCalculator;
-		int maxSearchDistance = this.maxSearchDistance;
+		int maxSearchDistance = this.maxSearchDistance > 0 ? this.maxSearchDistance : Integer.MAX_VALUE;
 
-		openList.clear();
-		addToOpenList(getAlgoData(startNode));
-		getAlgoData(targetNode);
+		addToOpenList(openList, context.getAlgoData(startNode));
+		AStarAlgoData<N> targetData = context.getAlgoData(targetNode);
 
-		AStarAlgoData currentData = null;
+		AStarAlgoData<N> currentData = null;
 		int maxDepth = 0;
 		while (maxDepth < maxSearchDistance && openList.size != 0) {
-			AStarAlgoData lastData = currentData;
+			AStarAlgoData<N> lastData = currentData;
 			currentData = openList.pop();
 			currentData.open = false;
-			distance = currentData.depth;
+			context.distance = currentData.depth;
 			currentData.closed = true;
 
-			if (currentData.node == targetNode && lastData != null && !isBlocked(lastData.node, targetNode)) break;
+			if (currentData.node == targetNode && lastData != null && !isBlocked(context, lastData.node, targetNode)) break;
 
 			float currentCost = currentData.cost;
-			for (N neighborNode : currentData.node.neighbors) {
-				AStarAlgoData neighborData = getAlgoData(neighborNode);
-				if (!isBlocked(currentData.node, neighborNode)) {
-					sourceNodeInContext = startNode;
-					float nextStepCost = currentCost + graph.getCost(this, neighborNode);
+			Array<N> neighbors = graph.getNeighbors(context, currentData.node);
+			for (int i = 0; i < neighbors.size; i++) {
+				N neighborNode = neighbors.get(i);
+				AStarAlgoData<N> neighborData = context.getAlgoData(neighborNode);
+				if (!isBlocked(context, currentData.node, neighborNode)) {
+					// the graph can use the source node to calc the cost of the edge
+					context.sourceNode = currentData.node;
+					float nextStepCost = currentCost + graph.getCost(context, neighborNode);
 					if (nextStepCost < neighborData.cost) {
 						if (neighborData.open) {
 							openList.remove(neighborData);
@@ -92,97 +111,35 @@ public class AStarPathFinder<N extends NavNode<N>> implements NavContext<N>, Pat
 					}
 					if (!neighborData.open && !neighborData.closed) {
 						neighborData.cost = nextStepCost;
-						neighborData.heuristic = heuristicCalculator.getCost(this, mover, neighborNode, targetNode);
+						neighborData.heuristic = heuristicCalculator.getCost(context, mover, neighborNode, targetNode);
 						neighborData.depth = currentData.depth + 1;
-						neighborNode.parent = currentData.node;
+						neighborData.parent = currentData.node;
 						maxDepth = Math.max(maxDepth, neighborData.depth);
-						addToOpenList(neighborData);
+						addToOpenList(openList, neighborData);
 					}
 				}
 			}
 		}
 
-		boolean pathFound = targetNode.parent != null;
-		if (pathFound) out.fill(startNode, targetNode);
+		boolean pathFound = targetData.parent != null;
+		if (pathFound) out.fill(startNode, targetNode, context);
 		return pathFound;
 	}
 
-	/** Get the AStar data from the given node and reset it if it has not been used in this run. If it does not exist at all (node
-	 * is reached the first time in the very first run) create a new one. */
-	private AStarAlgoData getAlgoData (N node) {
-		@SuppressWarnings("unchecked")
-		AStarAlgoData ad = (AStarAlgoData)node.algoData;
-		if (node.algoData == null) {
-			ad = new AStarAlgoData(node);
-			node.algoData = ad;
-		}
-
-		if (ad.checkedID != checkedID) {
-			ad.reset();
-			ad.checkedID = checkedID;
-		}
-		return ad;
-	}
-
 	/** Ask the graph if the way from start to target node is blocked. */
-	private boolean isBlocked (N startNode, N targetNode) {
-		sourceNodeInContext = startNode;
-		return graph.blocked(this, targetNode);
+	private boolean isBlocked (AStarContext<N> context, N startNode, N targetNode) {
+		context.sourceNode = startNode;
+		return graph.blocked(context, targetNode);
 	}
 
-	private void addToOpenList (AStarAlgoData node) {
+	private void addToOpenList (BinaryHeap<AStarAlgoData<N>> openList, AStarAlgoData<N> node) {
 		openList.add(node, node.cost + node.heuristic);
 		node.open = true;
 	}
 
-	@Override
-	public Object getMover () {
-		return mover;
-	}
-
-	@Override
-	public float getSearchDistance () {
-		return distance;
-	}
-
-	@Override
-	public N getSourceNode () {
-		return sourceNodeInContext;
-	}
-
 	/** The description of a class providing a cost for a given tile based on a target location and entity being moved. This
 	 * heuristic controls what priority is placed on different tiles during the search for a path */
 	public interface AStarHeuristicCalculator<N extends NavNode<N>> {
 		float getCost(NavContext<N> map, Object mover, N startNode, N targetNode);
 	}
-
-	class AStarAlgoData extends BinaryHeap.Node {
-		/** Backlink to the node. */
-		final N node;
-		/** Heuristic from this node to the target. */
-		float heuristic;
-		/** Search depth to reach this node. */
-		int depth;
-		/** ID of the current search. */
-		int checkedID;
-		/** This node's cost. */
-		float cost;
-		/** In the open list */
-		boolean open;
-		/** In the closed list */
-		boolean closed;
-
-		public AStarAlgoData (N node) {
-			super(0);
-			this.node = node;
-		}
-
-		void reset () {
-			closed = false;
-			open = false;
-			cost = 0;
-			depth = 0;
-			node.parent = null;
-		}
-	}
 }
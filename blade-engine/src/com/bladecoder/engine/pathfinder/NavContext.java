@@ -30,4 +30,7 @@ public interface NavContext<N extends NavNode<N>> {
 
 	/** Get the distance that has been searched to reach this point */
     float getSearchDistance();
+
+	/** Get the node used to reach the given node in the search or null if it has not been reached */
+    N getParent(N node);
 }
@@ -16,6 +16,8 @@
 
 package com.bladecoder.engine.pathfinder;
 
+import com.badlogic.gdx.utils.Array;
+
 /** The description for the data we're pathfinding over as an arbitrary graph. This provides the contract between the data being
  * searched (i.e. the game map) and the path finding generic tools.
  * <p>
@@ -29,4 +31,9 @@ public interface NavGraph<N extends NavNode<N>> {
 	/** Get the cost of moving to the target node. This can be used to make certain areas more desirable. A simple and valid
 	 * implementation of this method would be to return 1 in all cases. */
     float getCost(NavContext<N> context, N targetNode);
+
+	/** Get the neighbors of the node in the search. A simple implementation returns node.neighbors. The graph can use the context
+	 * to add temporary nodes that belong to the search, like the start and target points. The returned array is only read until
+	 * the next call with the same context. */
+    Array<N> getNeighbors(NavContext<N> context, N node);
 }
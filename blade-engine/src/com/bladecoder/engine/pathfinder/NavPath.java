@@ -22,9 +22,9 @@ public interface NavPath<N extends NavNode<N>> {
 	/** Fills the navigation path between the start and target node.
 	 * <p>
 	 * Note that current implementations have to follow the path backward from the targetNode to the startNode (following the
-	 * parent relation).
+	 * parent relation stored in the context of the search).
 	 * <p> */
-    void fill(N startNode, N targetNode);
+    void fill(N startNode, N targetNode, NavContext<N> context);
 
 	/** Returns the length of the path, i.e. the number of reached nodes. */
     int getLength();
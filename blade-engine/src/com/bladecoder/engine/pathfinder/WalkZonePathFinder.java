@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.pathfinder;
+
+import java.util.Collection;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.utils.FloatArray;
+import com.bladecoder.engine.model.BaseActor;
+
+/**
+ * Finds paths in the walkzone of a scene avoiding the obstacles.
+ *
+ * @author rgarcia
+ */
+public interface WalkZonePathFinder {
+	/**
+	 * Creates the navigation data for the walkzone and the visible obstacle
+	 * actors.
+	 *
+	 * @param wz the walkzone actor. null to remove the walkzone.
+	 */
+	void createInitialGraph(BaseActor wz, Collection<BaseActor> actors);
+
+	Polygon getWalkZone();
+
+	void addDinamicObstacle(Polygon poly);
+
+	/**
+	 * @return false if the obstacle was not in the graph.
+	 */
+	boolean removeDinamicObstacle(Polygon poly);
+
+	/**
+	 * Finds the path between 2 points. The points are clamped to the walkzone.
+	 *
+	 * @param out cleared and filled with the points of the path as xy pairs.
+	 * @return false if there is no path.
+	 */
+	boolean findPath(float sx, float sy, float tx, float ty, FloatArray out);
+
+	/**
+	 * @return a copy that doesn't change when the walkzone or the obstacles
+	 *         change, to search paths in other threads.
+	 */
+	WalkZonePathFinder getSnapshot();
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import com.badlogic.gdx.utils.Disposable;
+import com.bladecoder.engine.pathfinder.WalkZonePathFinder;
+
+/**
+ * Searches paths in a background thread.
+ *
+ * The searches are done in a snapshot of the graph taken when the path is
+ * requested, so the obstacles can change while searching. The found paths are
+ * delivered to the listeners in the render thread when calling update().
+ *
+ * @author rgarcia
+ */
+public class AsyncPathFinder implements Disposable {
+	private final ExecutorService executor;
+
+	/** Searches finished and not delivered yet */
+	private final ConcurrentLinkedQueue<PathRequest> finished = new ConcurrentLinkedQueue<>();
+
+	public AsyncPathFinder() {
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "PathFinder");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Request a path. Must be called from the render thread.
+	 *
+	 * @param listener called from update() when the path is found.
+	 */
+	public PathRequest findPath(WalkZonePathFinder graph, float sx, float sy, float tx, float ty,
+			PathRequest.PathListener listener) {
+		final PathRequest request = new PathRequest(graph.getSnapshot(), sx, sy, tx, ty, listener);
+
+		request.future = executor.submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					if (!request.isCancelled())
+						request.search();
+				} finally {
+					// always delivered, the actor waits for the path
+					finished.add(request);
+				}
+			}
+		});
+
+		return request;
+	}
+
+	/**
+	 * Delivers the found paths to the listeners. Must be called from the render
+	 * thread.
+	 */
+	public void update() {
+		PathRequest request;
+
+		while ((request = finished.poll()) != null)
+			request.deliver();
+	}
+
+	/**
+	 * Stops the thread. The pending requests are not delivered.
+	 */
+	@Override
+	public void dispose() {
+		executor.shutdownNow();
+		finished.clear();
+	}
+}
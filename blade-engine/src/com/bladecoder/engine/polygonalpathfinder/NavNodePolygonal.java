@@ -26,6 +26,9 @@ import com.bladecoder.engine.pathfinder.NavNode;
 public class NavNodePolygonal extends NavNode<NavNodePolygonal> {
 	public float x;
 	public float y;
+
+	/** true when the obstacle of the node has been removed from the graph */
+	boolean removed;
 	
 	public float getX() {
 		return x;
@@ -16,33 +16,50 @@
 
 package com.bladecoder.engine.polygonalpathfinder;
 
-import java.util.ArrayList;
-
-import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.FloatArray;
+import com.bladecoder.engine.pathfinder.NavContext;
 import com.bladecoder.engine.pathfinder.NavPath;
 
 /**  
- * Implementation of a navigation path for a polygonal map.
+ * Implementation of a navigation path for a polygonal map. The path is stored
+ * as xy pairs in a FloatArray that can be supplied by the caller.
  * 
  * @author rgarcia 
  */
 public class NavPathPolygonal implements NavPath<NavNodePolygonal> {
-	private final ArrayList<Vector2> resultPath = new ArrayList<Vector2>();
+	private FloatArray resultPath;
+
+	public NavPathPolygonal() {
+		this(new FloatArray());
+	}
+
+	public NavPathPolygonal(FloatArray resultPath) {
+		this.resultPath = resultPath;
+	}
 
 	@Override
-	public void fill (NavNodePolygonal startNode, NavNodePolygonal targetNode) {
-		
-		// TODO Ineficcient add in index 0 and new
-		
+	public void fill (NavNodePolygonal startNode, NavNodePolygonal targetNode, NavContext<NavNodePolygonal> context) {
 		resultPath.clear();
 		
+		// add the nodes from the target to the start and reverse them
 		NavNodePolygonal current = targetNode;
 		while (current != startNode) {
-			resultPath.add(0, new Vector2(current.getX(), current.getY()));
-			current = (NavNodePolygonal)current.parent;
+			resultPath.add(current.getX(), current.getY());
+			current = context.getParent(current);
 		}
 		
-		resultPath.add(0, new Vector2(current.getX(), current.getY()));
+		resultPath.add(current.getX(), current.getY());
+
+		float[] items = resultPath.items;
+
+		for (int i = 0, j = resultPath.size - 2; i < j; i += 2, j -= 2) {
+			float x = items[i];
+			float y = items[i + 1];
+			items[i] = items[j];
+			items[i + 1] = items[j + 1];
+			items[j] = x;
+			items[j + 1] = y;
+		}
 	}
 
 	@Override
@@ -50,12 +67,22 @@ public class NavPathPolygonal implements NavPath<NavNodePolygonal> {
 		resultPath.clear();
 	}
 
+	/**
+	 * @return the number of points of the path.
+	 */
 	@Override
 	public int getLength () {
-		return resultPath.size();
+		return resultPath.size / 2;
 	}
-	
-	public ArrayList<Vector2> getPath() {
+
+	/**
+	 * @return the path as xy pairs.
+	 */
+	public FloatArray getPath() {
 		return resultPath;
 	}
+
+	public void setPath(FloatArray resultPath) {
+		this.resultPath = resultPath;
+	}
 }
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.bladecoder.engine.pathfinder.AStarContext;
+
+/**
+ * The state of a path search in a {@link PolygonalNavGraph}.
+ *
+ * The start and target points are temporary nodes of the query and they are
+ * not added to the graph, so several queries can search the same graph at the
+ * same time. Every agent or thread can keep its own query to not create
+ * garbage.
+ *
+ * @author rgarcia
+ */
+public class NavQueryPolygonal extends AStarContext<NavNodePolygonal> {
+	final NavNodePolygonal startNode = new NavNodePolygonal();
+	final NavNodePolygonal targetNode = new NavNodePolygonal();
+
+	/** Graph nodes in line of sight with the target node */
+	final ObjectSet<NavNodePolygonal> targetLinks = new ObjectSet<>();
+
+	/** Neighbors of a graph node plus the target node */
+	final Array<NavNodePolygonal> tmpNeighbors = new Array<>();
+
+	final NavPathPolygonal path = new NavPathPolygonal();
+
+	final Vector2 source = new Vector2();
+	final Vector2 target = new Vector2();
+}
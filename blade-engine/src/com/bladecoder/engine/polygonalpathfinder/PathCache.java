@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * LRU cache of paths. Paths are stored as xy pairs and keyed by the source and
+ * target points snapped to a grid of CELL_SIZE.
+ *
+ * Entries are preallocated and reused, so no garbage is created after the cache
+ * is full. The cache can be used by several threads.
+ *
+ * @author rgarcia
+ */
+public class PathCache {
+	public static final float CELL_SIZE = 8f;
+
+	private final LongMap<Entry> entries;
+	private final int capacity;
+
+	/** Most recently used entry */
+	private Entry head;
+	/** Least recently used entry */
+	private Entry tail;
+
+	/** Entries removed by clear(), linked by next */
+	private Entry free;
+
+	private int version;
+
+	private long hits;
+	private long misses;
+
+	public PathCache(int capacity) {
+		this.capacity = capacity;
+		entries = new LongMap<>(capacity * 2);
+	}
+
+	/**
+	 * Search the path in the cache.
+	 *
+	 * @param version The graph version. The cache is cleared when the version
+	 *                changes.
+	 * @param out     the cached path is added to this buffer.
+	 * @return false if not found.
+	 */
+	public synchronized boolean get(int version, float sx, float sy, float tx, float ty, FloatArray out) {
+		if (version != this.version) {
+			clear();
+			this.version = version;
+		}
+
+		Entry e = entries.get(getKey(sx, sy, tx, ty));
+
+		if (e == null) {
+			misses++;
+			return false;
+		}
+
+		hits++;
+		moveToHead(e);
+
+		out.addAll(e.path);
+
+		return true;
+	}
+
+	public synchronized void put(int version, float sx, float sy, float tx, float ty, FloatArray path) {
+		if (version != this.version) {
+			clear();
+			this.version = version;
+		}
+
+		long key = getKey(sx, sy, tx, ty);
+		Entry e = entries.get(key);
+
+		if (e == null) {
+			if (entries.size >= capacity) {
+				// reuse the least recently used entry
+				e = tail;
+				entries.remove(e.key);
+				unlink(e);
+			} else if (free != null) {
+				e = free;
+				free = e.next;
+				e.next = null;
+			} else {
+				e = new Entry();
+			}
+
+			e.key = key;
+			entries.put(key, e);
+		} else {
+			unlink(e);
+		}
+
+		e.path.clear();
+		e.path.addAll(path);
+
+		linkHead(e);
+	}
+
+	/**
+	 * Counts the last hit as a miss. Called when the cached path is not valid for
+	 * the exact source and target points.
+	 */
+	public synchronized void rejectHit() {
+		hits--;
+		misses++;
+	}
+
+	/**
+	 * Removes all the paths. The entries are kept to be reused, the cache is
+	 * cleared every time the graph changes.
+	 */
+	public synchronized void clear() {
+		if (tail != null) {
+			tail.next = free;
+			free = head;
+		}
+
+		entries.clear();
+		head = null;
+		tail = null;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	private static long getKey(float sx, float sy, float tx, float ty) {
+		return (snap(sx)) | (snap(sy) << 16) | (snap(tx) << 32) | (snap(ty) << 48);
+	}
+
+	private static long snap(float v) {
+		return ((long) Math.floor(v / CELL_SIZE)) & 0xFFFFL;
+	}
+
+	private void moveToHead(Entry e) {
+		if (head == e)
+			return;
+
+		unlink(e);
+		linkHead(e);
+	}
+
+	private void linkHead(Entry e) {
+		e.prev = null;
+		e.next = head;
+
+		if (head != null)
+			head.prev = e;
+
+		head = e;
+
+		if (tail == null)
+			tail = e;
+	}
+
+	private void unlink(Entry e) {
+		if (e.prev != null)
+			e.prev.next = e.next;
+		else
+			head = e.next;
+
+		if (e.next != null)
+			e.next.prev = e.prev;
+		else
+			tail = e.prev;
+
+		e.prev = null;
+		e.next = null;
+	}
+
+	private static class Entry {
+		long key;
+		final FloatArray path = new FloatArray();
+		Entry prev;
+		Entry next;
+	}
+}
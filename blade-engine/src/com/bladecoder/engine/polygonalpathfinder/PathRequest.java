@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.bladecoder.engine.pathfinder.WalkZonePathFinder;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * A path search requested to the {@link AsyncPathFinder}.
+ *
+ * @author rgarcia
+ */
+public class PathRequest {
+	public interface PathListener {
+		/**
+		 * Called from the render thread with the found path.
+		 *
+		 * @param path the points of the path as xy pairs. Empty if there is no
+		 *             path. Only valid during the call.
+		 */
+		void pathFound(FloatArray path);
+	}
+
+	private final WalkZonePathFinder graph;
+	private final float sx, sy, tx, ty;
+	private final PathListener listener;
+	private final FloatArray path = new FloatArray();
+
+	Future<?> future;
+
+	private volatile boolean cancelled;
+
+	/** Only used from the render thread */
+	private boolean delivered;
+
+	PathRequest(WalkZonePathFinder graph, float sx, float sy, float tx, float ty, PathListener listener) {
+		this.graph = graph;
+		this.sx = sx;
+		this.sy = sy;
+		this.tx = tx;
+		this.ty = ty;
+		this.listener = listener;
+	}
+
+	void search() {
+		try {
+			graph.findPath(sx, sy, tx, ty, path);
+		} catch (RuntimeException e) {
+			// delivered as not found, the path can be half written
+			path.clear();
+			EngineLogger.error("PathRequest: Error searching the path", e);
+		}
+	}
+
+	void deliver() {
+		if (delivered || cancelled)
+			return;
+
+		delivered = true;
+		listener.pathFound(path);
+	}
+
+	/**
+	 * The listener will not be called.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public boolean isDone() {
+		return future != null && future.isDone();
+	}
+
+	/**
+	 * Waits for the search to finish and delivers the path now. Must be called
+	 * from the render thread.
+	 */
+	public void complete() {
+		if (delivered || cancelled)
+			return;
+
+		try {
+			future.get();
+		} catch (InterruptedException | ExecutionException e) {
+			EngineLogger.error("PathRequest: Error waiting for the path", e);
+			path.clear();
+		}
+
+		deliver();
+	}
+}
@@ -17,15 +17,23 @@ package com.bladecoder.engine.polygonalpathfinder;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 
 import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.bladecoder.engine.model.BaseActor;
 import com.bladecoder.engine.model.ObstacleActor;
 import com.bladecoder.engine.pathfinder.AStarPathFinder;
 import com.bladecoder.engine.pathfinder.NavContext;
 import com.bladecoder.engine.pathfinder.NavGraph;
-import com.bladecoder.engine.pathfinder.PathFinder;
+import com.bladecoder.engine.pathfinder.WalkZonePathFinder;
 import com.bladecoder.engine.util.EngineLogger;
 import com.bladecoder.engine.util.PolygonUtils;
 
@@ -33,29 +41,107 @@ import com.bladecoder.engine.util.PolygonUtils;
  * Finds the shortest path between 2 points in a world defined by a walkzone and
  * several obstacles.
  * 
+ * The search state is stored in a {@link NavQueryPolygonal}, so paths can be
+ * searched from several agents or threads while the graph is not modified.
+ * 
  * @author rgarcia
  */
-public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
-	private static final int MAX_PATHFINDER_SEARCH_DISTANCE = 50;
-
-	private static final Vector2 tmp = new Vector2();
-	private static final Vector2 tmp2 = new Vector2();
-
+public class PolygonalNavGraph implements NavGraph<NavNodePolygonal>, WalkZonePathFinder {
 	private Polygon walkZone;
 	private final ArrayList<Polygon> obstacles = new ArrayList<>();
 
-	final private PathFinder<NavNodePolygonal> pathfinder = new AStarPathFinder<>(this,
-			MAX_PATHFINDER_SEARCH_DISTANCE, new ManhattanDistance());
+	/** Obstacles used to create the initial graph and its geometry signature */
+	private final ArrayList<String> obstacleIds = new ArrayList<>();
+	private int signature;
+
+	/** Walkzone and obstacles edges to speed up the line of sight calculation */
+	private final SegmentGrid segmentGrid = new SegmentGrid();
+
+	/** Nodes and blocked edges of every obstacle for the incremental updates */
+	private final ObjectMap<Polygon, NavObstacle> navObstacles = new ObjectMap<>();
+
+	// The cost is the distance between nodes, so the euclidean distance is an
+	// admissible heuristic and there is no need to limit the search depth.
+	final private AStarPathFinder<NavNodePolygonal> pathfinder = new AStarPathFinder<>(this, 0, new Distance());
 
-	final private NavNodePolygonal startNode = new NavNodePolygonal();
-	final private NavNodePolygonal targetNode = new NavNodePolygonal();
 	final private ArrayList<NavNodePolygonal> graphNodes = new ArrayList<>();
 
+	private static final int PATH_CACHE_SIZE = 64;
+
+	/** Last paths found. Cleared when the version changes. */
+	private final PathCache pathCache = new PathCache(PATH_CACHE_SIZE);
+
+	/**
+	 * Incremented every time the walkzone or the obstacles change.
+	 */
+	private int version;
+
+	/** Copy of the graph for the searches in other threads */
+	private PolygonalNavGraph snapshot;
+
+	/** Queries used by the searches without query */
+	private final Array<NavQueryPolygonal> freeQueries = new Array<>();
+
+	/**
+	 * Finds the path between 2 points.
+	 * 
+	 * @return the points of the path. Empty if there is no path.
+	 */
 	public ArrayList<Vector2> findPath(float sx, float sy, float tx, float ty) {
-		final NavPathPolygonal resultPath = new NavPathPolygonal();
+		FloatArray path = new FloatArray();
+
+		findPath(sx, sy, tx, ty, path);
+
+		ArrayList<Vector2> result = new ArrayList<>(path.size / 2);
+
+		for (int i = 0; i < path.size; i += 2)
+			result.add(new Vector2(path.get(i), path.get(i + 1)));
 
-		Vector2 source = new Vector2(sx, sy);
-		Vector2 target = new Vector2(tx, ty);
+		return result;
+	}
+
+	/**
+	 * Finds the path between 2 points. The path is stored in the caller buffer,
+	 * so no memory is allocated when the buffer is reused.
+	 * 
+	 * @param out cleared and filled with the points of the path as xy pairs.
+	 * @return false if there is no path.
+	 */
+	public boolean findPath(float sx, float sy, float tx, float ty, FloatArray out) {
+		NavQueryPolygonal query;
+
+		synchronized (freeQueries) {
+			query = freeQueries.size > 0 ? freeQueries.pop() : new NavQueryPolygonal();
+		}
+
+		try {
+			return findPath(query, sx, sy, tx, ty, out);
+		} finally {
+			synchronized (freeQueries) {
+				freeQueries.add(query);
+			}
+		}
+	}
+
+	/**
+	 * Finds the path between 2 points storing the search state in the query.
+	 * 
+	 * The graph is only read, so several queries can search at the same time, from
+	 * different agents or threads, as long as the walkzone and the obstacles are
+	 * not modified during the search.
+	 * 
+	 * @param query the search state. Only one search can use it at a time.
+	 * @param out   cleared and filled with the points of the path as xy pairs.
+	 * @return false if there is no path.
+	 */
+	public boolean findPath(NavQueryPolygonal query, float sx, float sy, float tx, float ty, FloatArray out) {
+		out.clear();
+
+		final Vector2 source = query.source;
+		final Vector2 target = query.target;
+
+		source.set(sx, sy);
+		target.set(tx, ty);
 
 		// 1. First verify if both the start and target points of the path are
 		// inside the polygon. If the end point is outside the polygon clamp it
@@ -68,7 +154,7 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 			if (!PolygonUtils.isPointInside(walkZone, source.x, source.y, true)) {
 				EngineLogger.debug("PolygonalPathFinder: CLAMPED FAILED!!");
 
-				return resultPath.getPath();
+				return false;
 			}
 
 		}
@@ -79,11 +165,13 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 			if (!PolygonUtils.isPointInside(walkZone, target.x, target.y, true)) {
 				EngineLogger.debug("PolygonalPathFinder: CLAMPED FAILED!!");
 
-				return resultPath.getPath();
+				return false;
 			}
 		}
 
-		for (Polygon o : obstacles) {
+		for (int i = 0; i < obstacles.size(); i++) {
+			Polygon o = obstacles.get(i);
+
 			if (PolygonUtils.isPointInside(o, target.x, target.y, false)) {
 				PolygonUtils.getClampedPoint(o, target.x, target.y, target);
 
@@ -104,22 +192,163 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 		if (inLineOfSight(source.x, source.y, target.x, target.y)) {
 			EngineLogger.debug("PolygonalPathFinder: Direct path found");
 
-			resultPath.getPath().add(source);
-			resultPath.getPath().add(target);
+			out.add(source.x, source.y, target.x, target.y);
 
-			return resultPath.getPath();
+			return true;
 		}
 
-		// 3. Otherwise, add the start and end points of your path as new
-		// temporary nodes to the graph.
+		// 3. Search a path between the same cells in the cache.
+		if (pathCache.get(version, source.x, source.y, target.x, target.y, out)) {
+			if (isCachedPathValid(out, source, target)) {
+				out.set(0, source.x);
+				out.set(1, source.y);
+				out.set(out.size - 2, target.x);
+				out.set(out.size - 1, target.y);
+
+				return true;
+			}
+
+			out.clear();
+			pathCache.rejectHit();
+		}
+
+		// 4. Otherwise, add the start and end points of your path as new
+		// temporary nodes of the query.
 		// AND Connect them to every other node that they can see on the graph.
-		addStartEndNodes(source.x, source.y, target.x, target.y);
+		addStartEndNodes(query, source.x, source.y, target.x, target.y);
 
 		// 5. Run your A* implementation on the graph to get your path. This
 		// path is guaranteed to be as direct as possible!
-		pathfinder.findPath(null, startNode, targetNode, resultPath);
+		query.path.setPath(out);
+
+		boolean found = pathfinder.findPath(query, null, query.startNode, query.targetNode, query.path);
+
+		query.path.setPath(null);
+		query.startNode.neighbors.clear();
+		query.targetLinks.clear();
+
+		if (!found) {
+			out.clear();
+			return false;
+		}
+
+		smoothPath(out);
 
-		return resultPath.getPath();
+		pathCache.put(version, source.x, source.y, target.x, target.y, out);
+
+		return true;
+	}
+
+	/**
+	 * The cached path was found for points in the same cells. It is valid if the
+	 * source and the target see the second and the penultimate points of the
+	 * path.
+	 */
+	private boolean isCachedPathValid(FloatArray cached, Vector2 source, Vector2 target) {
+		int size = cached.size;
+
+		if (size < 6)
+			return false;
+
+		return inLineOfSight(source.x, source.y, cached.get(2), cached.get(3))
+				&& inLineOfSight(cached.get(size - 4), cached.get(size - 3), target.x, target.y);
+	}
+
+	/**
+	 * Returns a copy of the graph that doesn't change when the walkzone or the
+	 * obstacles of this graph change, to search paths in other threads. The copy
+	 * is reused until this graph changes.
+	 * 
+	 * The snapshot must not be modified.
+	 */
+	public PolygonalNavGraph getSnapshot() {
+		if (snapshot == null || snapshot.version != version)
+			snapshot = createSnapshot();
+
+		return snapshot;
+	}
+
+	private PolygonalNavGraph createSnapshot() {
+		PolygonalNavGraph s = new PolygonalNavGraph();
+
+		s.version = version;
+		s.signature = signature;
+
+		if (walkZone == null)
+			return s;
+
+		s.walkZone = copyPolygon(walkZone);
+
+		for (Polygon o : obstacles)
+			s.obstacles.add(copyPolygon(o));
+
+		s.obstacleIds.addAll(obstacleIds);
+		s.segmentGrid.build(s.walkZone, s.obstacles);
+
+		ObjectIntMap<NavNodePolygonal> indexes = new ObjectIntMap<>(graphNodes.size());
+
+		for (int i = 0; i < graphNodes.size(); i++) {
+			NavNodePolygonal n = graphNodes.get(i);
+
+			indexes.put(n, i);
+			s.graphNodes.add(new NavNodePolygonal(n.x, n.y));
+		}
+
+		for (int i = 0; i < graphNodes.size(); i++) {
+			Array<NavNodePolygonal> neighbors = graphNodes.get(i).neighbors;
+			NavNodePolygonal n = s.graphNodes.get(i);
+
+			for (int j = 0; j < neighbors.size; j++)
+				n.neighbors.add(s.graphNodes.get(indexes.get(neighbors.get(j), -1)));
+		}
+
+		return s;
+	}
+
+	/**
+	 * @return a polygon with the transformed vertices of the given polygon.
+	 */
+	private static Polygon copyPolygon(Polygon p) {
+		return new Polygon(p.getTransformedVertices().clone());
+	}
+
+	/**
+	 * @return the number of paths taken from the cache.
+	 */
+	public long getCacheHits() {
+		return pathCache.getHits();
+	}
+
+	/**
+	 * @return the number of searches not found in the cache.
+	 */
+	public long getCacheMisses() {
+		return pathCache.getMisses();
+	}
+
+	/**
+	 * The version changes every time the walkzone or the obstacles change.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Removes the intermediate points that are not needed because the previous and
+	 * the next points are in line of sight.
+	 */
+	private void smoothPath(FloatArray path) {
+		int i = 0;
+
+		while (i < path.size - 4) {
+			if (inLineOfSight(path.get(i), path.get(i + 1), path.get(i + 4), path.get(i + 5))) {
+				// remove the x and y of the next point
+				path.removeIndex(i + 2);
+				path.removeIndex(i + 2);
+			} else {
+				i += 2;
+			}
+		}
 	}
 
 	/**
@@ -142,7 +371,21 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 	}
 
 	public void createInitialGraph(BaseActor wz, Collection<BaseActor> actors) {
+		createInitialGraph(wz, actors, null);
+	}
+
+	/**
+	 * Creates the visibility graph. If the precomputed graph was calculated for
+	 * the same walkzone and obstacles, the line of sight calculation is skipped and
+	 * the edges are taken from it.
+	 */
+	public void createInitialGraph(BaseActor wz, Collection<BaseActor> actors, PrecomputedNavGraph precomputed) {
 		graphNodes.clear();
+		obstacles.clear();
+		obstacleIds.clear();
+		segmentGrid.clear();
+		navObstacles.clear();
+		version++;
 
 		if (wz == null) {
 			walkZone = null;
@@ -160,76 +403,191 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 			}
 		}
 
-		// 2.- Add obstacles concave nodes
-		obstacles.clear();
+		// 2.- Add obstacles concave nodes. Obstacles are sorted by id to always
+		// create the nodes in the same order.
+		ArrayList<BaseActor> obstacleActors = new ArrayList<>();
 
 		for (BaseActor a : actors) {
 			if (a instanceof ObstacleActor && a.isVisible())
-				obstacles.add(a.getBBox());
+				obstacleActors.add(a);
+		}
+
+		Collections.sort(obstacleActors, new Comparator<BaseActor>() {
+			@Override
+			public int compare(BaseActor a1, BaseActor a2) {
+				return a1.getId().compareTo(a2.getId());
+			}
+		});
+
+		for (BaseActor a : obstacleActors) {
+			obstacles.add(a.getBBox());
+			obstacleIds.add(a.getId());
 		}
 
 		for (Polygon o : obstacles) {
+			NavObstacle navObstacle = new NavObstacle();
+			navObstacles.put(o, navObstacle);
+
 			verts = o.getTransformedVertices();
 
 			for (int i = 0; i < verts.length; i += 2) {
 				if (PolygonUtils.isVertexConcave(o, i)
 						&& PolygonUtils.isPointInside(walkZone, verts[i], verts[i + 1], false)) {
-					graphNodes.add(new NavNodePolygonal(verts[i], verts[i + 1]));
+					NavNodePolygonal n = new NavNodePolygonal(verts[i], verts[i + 1]);
+					graphNodes.add(n);
+					navObstacle.nodes.add(n);
 				}
 			}
 		}
 
-		// 3.- CALC LINE OF SIGHTs
-		for (int i = 0; i < graphNodes.size() - 1; i++) {
-			NavNodePolygonal n1 = graphNodes.get(i);
+		signature = PrecomputedNavGraph.calcSignature(walkZone, obstacles);
 
-			for (int j = i + 1; j < graphNodes.size(); j++) {
-				NavNodePolygonal n2 = graphNodes.get(j);
+		segmentGrid.build(walkZone, obstacles);
+
+		// 3.- LOAD PRECOMPUTED LINE OF SIGHTs
+		if (precomputed != null) {
+			if (precomputed.matches(signature, obstacleIds, graphNodes.size())) {
+				int[] edges = precomputed.getEdges();
+
+				for (int i = 0; i < edges.length; i += 2) {
+					NavNodePolygonal n1 = graphNodes.get(edges[i]);
+					NavNodePolygonal n2 = graphNodes.get(edges[i + 1]);
 
-				if (inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
 					n1.neighbors.add(n2);
 					n2.neighbors.add(n1);
 				}
+
+				// the edges blocked by every obstacle are searched when removing it
+				for (NavObstacle o : navObstacles.values())
+					o.blockedEdgesKnown = false;
+
+				return;
+			}
+
+			EngineLogger.debug("PolygonalPathFinder: Precomputed graph outdated. Calculating graph.");
+		}
+
+		// 4.- CALC LINE OF SIGHTs
+		for (int i = 0; i < graphNodes.size() - 1; i++) {
+			NavNodePolygonal n1 = graphNodes.get(i);
+
+			for (int j = i + 1; j < graphNodes.size(); j++) {
+				connectIfVisible(n1, graphNodes.get(j), null);
 			}
 		}
 	}
 
+	/**
+	 * Exports the graph created by the last 'createInitialGraph' call to store it
+	 * with the scene model.
+	 *
+	 * @return The graph or null if there is no walkzone.
+	 */
+	public PrecomputedNavGraph createPrecomputedGraph() {
+		if (walkZone == null)
+			return null;
+
+		ObjectIntMap<NavNodePolygonal> indexes = new ObjectIntMap<>(graphNodes.size());
+
+		for (int i = 0; i < graphNodes.size(); i++)
+			indexes.put(graphNodes.get(i), i);
+
+		IntArray edges = new IntArray();
+
+		for (int i = 0; i < graphNodes.size(); i++) {
+			for (NavNodePolygonal n2 : graphNodes.get(i).neighbors) {
+				int j = indexes.get(n2, -1);
+
+				if (j > i)
+					edges.add(i, j);
+			}
+		}
+
+		return new PrecomputedNavGraph(signature, obstacleIds.toArray(new String[0]), graphNodes.size(),
+				edges.toArray());
+	}
+
 	private boolean inLineOfSight(float p1X, float p1Y, float p2X, float p2Y) {
+		return getLineOfSightBlocker(p1X, p1Y, p2X, p2Y) == null;
+	}
+
+	/**
+	 * @return null if both points are in line of sight. If not, the walkzone or the
+	 *         obstacle that blocks the line of sight.
+	 */
+	private Polygon getLineOfSightBlocker(float p1X, float p1Y, float p2X, float p2Y) {
 
-		tmp.set(p1X, p1Y);
-		tmp2.set(p2X, p2Y);
+		// 1. No walkzone or obstacle edge crosses the segment
+		Polygon crossed = segmentGrid.getCrossedPolygon(p1X, p1Y, p2X, p2Y);
 
-		if (!PolygonUtils.inLineOfSight(tmp, tmp2, walkZone, false)) {
-			return false;
+		if (crossed != null) {
+			return crossed;
 		}
 
-		for (Polygon o : obstacles) {
-			if (!PolygonUtils.inLineOfSight(tmp, tmp2, o, true)) {
-				return false;
+		// 2. The middle point is inside the walkzone and outside the obstacles
+		float mX = (p1X + p2X) / 2;
+		float mY = (p1Y + p2Y) / 2;
+
+		if (!segmentGrid.isPointInside(walkZone, mX, mY, true)) {
+			return walkZone;
+		}
+
+		for (int i = 0; i < obstacles.size(); i++) {
+			Polygon o = obstacles.get(i);
+			Rectangle bounds = segmentGrid.getBounds(o);
+
+			if ((bounds == null || bounds.contains(mX, mY)) && PolygonUtils.isPointInside(o, mX, mY, false)) {
+				return o;
 			}
 		}
 
-		return true;
+		return null;
 	}
 
-	private void addStartEndNodes(float sx, float sy, float tx, float ty) {
+	/**
+	 * Connects both nodes if they are in line of sight. If the edge is blocked by
+	 * an obstacle, it is stored in the obstacle to restore it when the obstacle is
+	 * removed.
+	 * 
+	 * @param ignore obstacle that will not store the blocked edge.
+	 */
+	private void connectIfVisible(NavNodePolygonal n1, NavNodePolygonal n2, Polygon ignore) {
+		Polygon blocker = getLineOfSightBlocker(n1.x, n1.y, n2.x, n2.y);
+
+		if (blocker == null) {
+			n1.neighbors.add(n2);
+			n2.neighbors.add(n1);
+		} else if (blocker != walkZone && blocker != ignore) {
+			NavObstacle o = navObstacles.get(blocker);
+
+			if (o != null)
+				o.blockedEdges.add(n1, n2);
+		}
+	}
+
+	private void addStartEndNodes(NavQueryPolygonal query, float sx, float sy, float tx, float ty) {
+		NavNodePolygonal startNode = query.startNode;
+		NavNodePolygonal targetNode = query.targetNode;
+
 		startNode.x = sx;
 		startNode.y = sy;
 		targetNode.x = tx;
 		targetNode.y = ty;
 
 		startNode.neighbors.clear();
+		query.targetLinks.clear();
 
-		for (NavNodePolygonal n : graphNodes) {
-
-			n.neighbors.removeValue(targetNode, true);
+		for (int i = 0; i < graphNodes.size(); i++) {
+			NavNodePolygonal n = graphNodes.get(i);
 
 			if (inLineOfSight(startNode.x, startNode.y, n.x, n.y)) {
 				startNode.neighbors.add(n);
 			}
 
+			// the target node is not added to the graph node neighbors. See
+			// getNeighbors().
 			if (inLineOfSight(targetNode.x, targetNode.y, n.x, n.y)) {
-				n.neighbors.add(targetNode);
+				query.targetLinks.add(n);
 			}
 		}
 
@@ -241,81 +599,205 @@ public class PolygonalNavGraph implements NavGraph<NavNodePolygonal> {
 
 	public void setWalkZone(Polygon walkZone) {
 		this.walkZone = walkZone;
+		version++;
+
+		if (walkZone != null)
+			segmentGrid.build(walkZone, obstacles);
+		else
+			segmentGrid.clear();
 	}
 
 	public ArrayList<NavNodePolygonal> getGraphNodes() {
 		return graphNodes;
 	}
 
+	/**
+	 * The graph nodes in line of sight with the target node of the query also have
+	 * the target node as neighbor.
+	 */
+	@Override
+	public Array<NavNodePolygonal> getNeighbors(NavContext<NavNodePolygonal> context, NavNodePolygonal node) {
+		NavQueryPolygonal query = (NavQueryPolygonal) context;
+
+		if (!query.targetLinks.contains(node))
+			return node.neighbors;
+
+		Array<NavNodePolygonal> neighbors = query.tmpNeighbors;
+		neighbors.clear();
+		neighbors.addAll(node.neighbors);
+		neighbors.add(query.targetNode);
+
+		return neighbors;
+	}
+
 	@Override
 	public boolean blocked(NavContext<NavNodePolygonal> context, NavNodePolygonal targetNode) {
 		return false;
 	}
 
+	/**
+	 * The cost is the length of the segment from the source node in the context,
+	 * so the pathfinder returns the shortest path and not the path with less
+	 * nodes.
+	 */
 	@Override
 	public float getCost(NavContext<NavNodePolygonal> context, NavNodePolygonal targetNode) {
-		return 1;
+		NavNodePolygonal sourceNode = context.getSourceNode();
+
+		return Vector2.dst(sourceNode.x, sourceNode.y, targetNode.x, targetNode.y);
 	}
 
-	private void addObstacleToGrapth(Polygon poly) {
+	public void addDinamicObstacle(Polygon poly) {
+
+		// CHECK TO AVOID ADDING THE ACTOR SEVERAL TIMES
+		if (navObstacles.containsKey(poly) || walkZone == null)
+			return;
+
+		version++;
+		obstacles.add(poly);
+		segmentGrid.add(poly);
+
+		NavObstacle navObstacle = new NavObstacle();
+		navObstacles.put(poly, navObstacle);
+
+		// 1. Remove the edges that cross the new obstacle
+		Rectangle bounds = segmentGrid.getBounds(poly);
+
+		for (int i = 0; i < graphNodes.size(); i++) {
+			NavNodePolygonal n1 = graphNodes.get(i);
+
+			for (int j = n1.neighbors.size - 1; j >= 0; j--) {
+				NavNodePolygonal n2 = n1.neighbors.get(j);
+
+				if (segmentOverlaps(bounds, n1, n2) && isBlockedByObstacle(poly, n1.x, n1.y, n2.x, n2.y)) {
+					n1.neighbors.removeIndex(j);
+					n2.neighbors.removeValue(n1, true);
+					navObstacle.blockedEdges.add(n1, n2);
+				}
+			}
+		}
+
+		// 2. Add the obstacle concave nodes
 		float[] verts = poly.getTransformedVertices();
 		for (int i = 0; i < verts.length; i += 2) {
 			if (PolygonUtils.isVertexConcave(poly, i)
-					&& PolygonUtils.isPointInside(walkZone, verts[i], verts[i + 1], false)) {
+					&& segmentGrid.isPointInside(walkZone, verts[i], verts[i + 1], false)) {
 				NavNodePolygonal n1 = new NavNodePolygonal(verts[i], verts[i + 1]);
 
+				// edges blocked by this obstacle are not stored because the
+				// node is removed with the obstacle.
 				for (int j = 0; j < graphNodes.size(); j++) {
-					NavNodePolygonal n2 = graphNodes.get(j);
-
-					if (inLineOfSight(n1.x, n1.y, n2.x, n2.y)) {
-						n1.neighbors.add(n2);
-						n2.neighbors.add(n1);
-					}
+					connectIfVisible(n1, graphNodes.get(j), poly);
 				}
 
 				graphNodes.add(n1);
+				navObstacle.nodes.add(n1);
 			}
 		}
 	}
 
-	public void addDinamicObstacle(Polygon poly) {
+	public boolean removeDinamicObstacle(Polygon poly) {
+		NavObstacle navObstacle = navObstacles.remove(poly);
+
+		if (navObstacle == null)
+			return false;
 
-		int idx = obstacles.indexOf(poly);
+		version++;
 
-		// CHECK TO AVOID ADDING THE ACTOR SEVERAL TIMES
-		if (idx == -1 && walkZone != null) {
-			obstacles.add(poly);
-			addObstacleToGrapth(poly);
+		Rectangle bounds = segmentGrid.getBounds(poly);
+
+		obstacles.remove(poly);
+		segmentGrid.remove(poly);
+
+		// 1. Remove the obstacle nodes
+		for (NavNodePolygonal n : navObstacle.nodes) {
+			n.removed = true;
+
+			for (NavNodePolygonal n2 : n.neighbors) {
+				n2.neighbors.removeValue(n, true);
+			}
+
+			n.neighbors.clear();
 		}
-	}
 
-	public boolean removeDinamicObstacle(Polygon poly) {
-		boolean exists = obstacles.remove(poly);
+		if (navObstacle.nodes.size > 0) {
+			int j = 0;
 
-		if (!exists)
-			return false;
+			for (int i = 0; i < graphNodes.size(); i++) {
+				NavNodePolygonal n = graphNodes.get(i);
 
-		float[] verts = poly.getTransformedVertices();
+				if (!n.removed)
+					graphNodes.set(j++, n);
+			}
 
-		for (int i = 0; i < verts.length; i += 2) {
-			if (PolygonUtils.isVertexConcave(poly, i)
-					&& PolygonUtils.isPointInside(walkZone, verts[i], verts[i + 1], false)) {
-				for (int j = 0; j < graphNodes.size(); j++) {
-					NavNodePolygonal n = graphNodes.get(j);
+			while (graphNodes.size() > j)
+				graphNodes.remove(graphNodes.size() - 1);
+		}
+
+		// 2. Restore the edges blocked by the obstacle
+		if (navObstacle.blockedEdgesKnown) {
+			Array<NavNodePolygonal> blocked = navObstacle.blockedEdges;
 
-					if (n.x == verts[i] && n.y == verts[i + 1]) {
-						graphNodes.remove(n);
-						j--;
+			for (int i = 0; i < blocked.size; i += 2) {
+				NavNodePolygonal n1 = blocked.get(i);
+				NavNodePolygonal n2 = blocked.get(i + 1);
 
-						for (NavNodePolygonal n2 : graphNodes) {
-							n2.neighbors.removeValue(n, true);
-						}
+				if (!n1.removed && !n2.removed && !n1.neighbors.contains(n2, true))
+					connectIfVisible(n1, n2, null);
+			}
+		} else if (bounds != null) {
+			// The graph was loaded precomputed. Search the not connected nodes
+			// whose edge crosses the obstacle bounds.
+			for (int i = 0; i < graphNodes.size() - 1; i++) {
+				NavNodePolygonal n1 = graphNodes.get(i);
 
-					}
+				for (int j = i + 1; j < graphNodes.size(); j++) {
+					NavNodePolygonal n2 = graphNodes.get(j);
+
+					if (segmentOverlaps(bounds, n1, n2) && !n1.neighbors.contains(n2, true))
+						connectIfVisible(n1, n2, null);
 				}
 			}
 		}
 
 		return true;
 	}
+
+	/**
+	 * Checks if the bounding rectangle of the segment overlaps the bounds.
+	 */
+	private static boolean segmentOverlaps(Rectangle bounds, NavNodePolygonal n1, NavNodePolygonal n2) {
+		return Math.max(n1.x, n2.x) >= bounds.x && Math.min(n1.x, n2.x) <= bounds.x + bounds.width
+				&& Math.max(n1.y, n2.y) >= bounds.y && Math.min(n1.y, n2.y) <= bounds.y + bounds.height;
+	}
+
+	/**
+	 * Line of sight test only against one obstacle. Same checks as
+	 * PolygonUtils.inLineOfSight().
+	 */
+	private static boolean isBlockedByObstacle(Polygon o, float p1X, float p1Y, float p2X, float p2Y) {
+		float[] verts = o.getTransformedVertices();
+
+		for (int i = 0; i < verts.length; i += 2) {
+			if (PolygonUtils.lineSegmentsCross(p1X, p1Y, p2X, p2Y, verts[i], verts[i + 1],
+					verts[(i + 2) % verts.length], verts[(i + 3) % verts.length]))
+				return true;
+		}
+
+		return PolygonUtils.isPointInside(o, (p1X + p2X) / 2, (p1Y + p2Y) / 2, false);
+	}
+
+	private static class NavObstacle {
+		/** Nodes created for the obstacle concave vertices */
+		final Array<NavNodePolygonal> nodes = new Array<>();
+
+		/** Pairs of nodes whose edge is blocked by the obstacle */
+		final Array<NavNodePolygonal> blockedEdges = new Array<>();
+
+		/**
+		 * false when the graph has been loaded precomputed and the blocked edges
+		 * are unknown.
+		 */
+		boolean blockedEdgesKnown = true;
+	}
 }
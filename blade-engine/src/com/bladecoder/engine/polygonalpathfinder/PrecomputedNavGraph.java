@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.List;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.Json.Serializable;
+import com.badlogic.gdx.utils.JsonValue;
+
+/**
+ * The visibility graph of a {@link PolygonalNavGraph} calculated when the
+ * scene model is saved.
+ *
+ * Graph nodes are always vertices of the walkzone or of the obstacles, so only
+ * the edges are stored: as pairs of indexes in the node list. The node list is
+ * rebuilt in the same order when loading.
+ *
+ * The signature of the walkzone and obstacles geometry is stored to detect
+ * when the graph is not valid anymore and must be calculated at runtime.
+ *
+ * @author rgarcia
+ */
+public class PrecomputedNavGraph implements Serializable {
+	private int signature;
+	private String[] obstacles;
+	private int numNodes;
+	private int[] edges;
+
+	public PrecomputedNavGraph() {
+	}
+
+	public PrecomputedNavGraph(int signature, String[] obstacles, int numNodes, int[] edges) {
+		this.signature = signature;
+		this.obstacles = obstacles;
+		this.numNodes = numNodes;
+		this.edges = edges;
+	}
+
+	/**
+	 * @return true if the graph was calculated for the same walkzone and
+	 *         obstacles.
+	 */
+	public boolean matches(int signature, List<String> obstacleIds, int numNodes) {
+		if (this.signature != signature || this.numNodes != numNodes || edges == null)
+			return false;
+
+		int numObstacles = obstacles == null ? 0 : obstacles.length;
+
+		if (numObstacles != obstacleIds.size())
+			return false;
+
+		for (int i = 0; i < numObstacles; i++) {
+			if (!obstacles[i].equals(obstacleIds.get(i)))
+				return false;
+		}
+
+		return true;
+	}
+
+	public int[] getEdges() {
+		return edges;
+	}
+
+	/**
+	 * Calcs the signature of the geometry used to build the graph. The position
+	 * is divided by the scale so the signature doesn't depend on the world scale.
+	 */
+	public static int calcSignature(Polygon walkZone, List<Polygon> obstacles) {
+		int h = calcSignature(17, walkZone);
+
+		for (Polygon o : obstacles)
+			h = calcSignature(h, o);
+
+		return h;
+	}
+
+	private static int calcSignature(int h, Polygon p) {
+		float[] verts = p.getVertices();
+
+		h = 31 * h + verts.length;
+
+		for (float v : verts)
+			h = 31 * h + Float.floatToIntBits(v);
+
+		h = 31 * h + Math.round(p.getX() / p.getScaleX());
+		h = 31 * h + Math.round(p.getY() / p.getScaleY());
+		h = 31 * h + Float.floatToIntBits(p.getRotation());
+
+		return h;
+	}
+
+	@Override
+	public void write(Json json) {
+		json.writeValue("signature", signature);
+		json.writeValue("obstacles", obstacles);
+		json.writeValue("numNodes", numNodes);
+		json.writeValue("edges", edges);
+	}
+
+	@Override
+	public void read(Json json, JsonValue jsonData) {
+		signature = json.readValue("signature", int.class, 0, jsonData);
+		obstacles = json.readValue("obstacles", String[].class, jsonData);
+		numNodes = json.readValue("numNodes", int.class, 0, jsonData);
+		edges = json.readValue("edges", int[].class, jsonData);
+	}
+}
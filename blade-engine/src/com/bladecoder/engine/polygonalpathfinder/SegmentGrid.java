@@ -0,0 +1,380 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.polygonalpathfinder;
+
+import java.util.List;
+
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.bladecoder.engine.util.PolygonUtils;
+
+/**
+ * Uniform grid with the edges of the walkzone and the obstacles. Used to only
+ * test the edges near a segment or a point in the line of sight calculations.
+ *
+ * The grid covers the walkzone bounds. Edges outside the grid are stored in the
+ * border cells.
+ *
+ * Queries doesn't modify the grid, so several queries can be done at the same
+ * time.
+ *
+ * @author rgarcia
+ */
+public class SegmentGrid {
+	private static final int MAX_CELLS_PER_AXIS = 128;
+	private static final float MIN_CELL_SIZE = 16f;
+
+	/**
+	 * Max. distance from an edge for a point to be considered in the edge by
+	 * PolygonUtils.isPointInside().
+	 */
+	private static final float POINT_MARGIN = 1f;
+
+	/** To avoid missing cells by float precision errors */
+	private static final float EPSILON = 0.01f;
+
+	private float minX;
+	private float minY;
+	private float maxX;
+	private float maxY;
+	private float cellSize;
+	private int cols;
+	private int rows;
+
+	/** Segment indexes in every cell. Created when needed. */
+	private IntArray[] cells;
+
+	/** x1, y1, x2, y2 for every segment */
+	private final FloatArray segments = new FloatArray();
+	private final Array<Polygon> owners = new Array<>();
+	private final IntArray freeSegments = new IntArray();
+
+	private final ObjectMap<Polygon, PolygonEntry> polygons = new ObjectMap<>();
+
+	/**
+	 * Creates the grid to cover the walkzone and adds the walkzone and obstacles
+	 * edges.
+	 */
+	public void build(Polygon walkZone, List<Polygon> obstacles) {
+		clear();
+
+		Rectangle bounds = walkZone.getBoundingRectangle();
+
+		minX = bounds.x - POINT_MARGIN * 2;
+		minY = bounds.y - POINT_MARGIN * 2;
+		maxX = bounds.x + bounds.width + POINT_MARGIN * 2;
+		maxY = bounds.y + bounds.height + POINT_MARGIN * 2;
+
+		float w = maxX - minX;
+		float h = maxY - minY;
+
+		int numSegments = walkZone.getVertices().length / 2;
+
+		for (Polygon o : obstacles)
+			numSegments += o.getVertices().length / 2;
+
+		// around one segment per cell
+		cellSize = (float) Math.sqrt(w * h / numSegments);
+		cellSize = Math.max(cellSize, MIN_CELL_SIZE);
+		cellSize = Math.max(cellSize, Math.max(w, h) / MAX_CELLS_PER_AXIS);
+
+		cols = Math.max(1, (int) Math.ceil(w / cellSize));
+		rows = Math.max(1, (int) Math.ceil(h / cellSize));
+
+		cells = new IntArray[cols * rows];
+
+		add(walkZone);
+
+		for (Polygon o : obstacles)
+			add(o);
+	}
+
+	public void clear() {
+		cells = null;
+		segments.clear();
+		owners.clear();
+		freeSegments.clear();
+		polygons.clear();
+	}
+
+	public boolean isEmpty() {
+		return cells == null;
+	}
+
+	/**
+	 * Adds the edges of the polygon to the grid.
+	 */
+	public void add(Polygon p) {
+		if (cells == null || polygons.containsKey(p))
+			return;
+
+		float[] verts = p.getTransformedVertices();
+
+		PolygonEntry entry = new PolygonEntry();
+		entry.bounds.set(p.getBoundingRectangle());
+
+		for (int i = 0; i < verts.length; i += 2) {
+			int s = addSegment(p, verts[i], verts[i + 1], verts[(i + 2) % verts.length],
+					verts[(i + 3) % verts.length]);
+			entry.segments.add(s);
+		}
+
+		polygons.put(p, entry);
+	}
+
+	/**
+	 * Removes the edges of the polygon from the grid. The edges are removed from
+	 * the cells where they were added, so it can be called after the polygon has
+	 * been moved.
+	 */
+	public void remove(Polygon p) {
+		PolygonEntry entry = polygons.remove(p);
+
+		if (entry == null)
+			return;
+
+		for (int i = 0; i < entry.segments.size; i++) {
+			int s = entry.segments.get(i);
+			int idx = s * 4;
+
+			float x1 = segments.get(idx);
+			float y1 = segments.get(idx + 1);
+			float x2 = segments.get(idx + 2);
+			float y2 = segments.get(idx + 3);
+
+			int c0 = col(Math.min(x1, x2)), c1 = col(Math.max(x1, x2));
+			int r0 = row(Math.min(y1, y2)), r1 = row(Math.max(y1, y2));
+
+			for (int r = r0; r <= r1; r++) {
+				for (int c = c0; c <= c1; c++) {
+					IntArray cell = cells[r * cols + c];
+
+					if (cell != null)
+						cell.removeValue(s);
+				}
+			}
+
+			owners.set(s, null);
+			freeSegments.add(s);
+		}
+	}
+
+	/**
+	 * @return the bounding rectangle of the polygon when it was added or null if
+	 *         it is not in the grid.
+	 */
+	public Rectangle getBounds(Polygon p) {
+		PolygonEntry entry = polygons.get(p);
+
+		return entry == null ? null : entry.bounds;
+	}
+
+	/**
+	 * @return true if the segment crosses some edge in the grid. Uses
+	 *         PolygonUtils.lineSegmentsCross().
+	 */
+	public boolean segmentCrosses(float x1, float y1, float x2, float y2) {
+		return getCrossedPolygon(x1, y1, x2, y2) != null;
+	}
+
+	/**
+	 * @return the polygon of the first edge found that crosses the segment or null
+	 *         if no edge crosses it.
+	 */
+	public Polygon getCrossedPolygon(float x1, float y1, float x2, float y2) {
+		float sMinX = Math.min(x1, x2);
+		float sMaxX = Math.max(x1, x2);
+
+		int c0 = col(sMinX);
+		int c1 = col(sMaxX);
+
+		for (int c = c0; c <= c1; c++) {
+			// x range of the segment inside the column
+			float cx0 = c == c0 ? sMinX : minX + c * cellSize;
+			float cx1 = c == c1 ? sMaxX : minX + (c + 1) * cellSize;
+
+			float ya, yb;
+
+			if (x1 == x2) {
+				ya = y1;
+				yb = y2;
+			} else {
+				float m = (y2 - y1) / (x2 - x1);
+				ya = y1 + (cx0 - x1) * m;
+				yb = y1 + (cx1 - x1) * m;
+			}
+
+			int r0 = row(Math.min(ya, yb) - EPSILON);
+			int r1 = row(Math.max(ya, yb) + EPSILON);
+
+			for (int r = r0; r <= r1; r++) {
+				IntArray cell = cells[r * cols + c];
+
+				if (cell == null)
+					continue;
+
+				for (int i = 0; i < cell.size; i++) {
+					int s = cell.get(i);
+					int idx = s * 4;
+
+					if (PolygonUtils.lineSegmentsCross(x1, y1, x2, y2, segments.get(idx), segments.get(idx + 1),
+							segments.get(idx + 2), segments.get(idx + 3)))
+						return owners.get(s);
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Same result as PolygonUtils.isPointInside() but only testing the edges near
+	 * the point and the edges above the point in the same column.
+	 */
+	public boolean isPointInside(Polygon p, float x, float y, boolean toleranceOnOutside) {
+		// Outside the grid, edges are clamped to the border cells.
+		if (x <= minX || x >= maxX || y <= minY || y >= maxY)
+			return PolygonUtils.isPointInside(p, x, y, toleranceOnOutside);
+
+		// 1. Point in some edge
+		int c0 = col(x - POINT_MARGIN), c1 = col(x + POINT_MARGIN);
+		int r0 = row(y - POINT_MARGIN), r1 = row(y + POINT_MARGIN);
+
+		for (int r = r0; r <= r1; r++) {
+			for (int c = c0; c <= c1; c++) {
+				IntArray cell = cells[r * cols + c];
+
+				if (cell == null)
+					continue;
+
+				for (int i = 0; i < cell.size; i++) {
+					int s = cell.get(i);
+
+					if (owners.get(s) != p)
+						continue;
+
+					int idx = s * 4;
+
+					if (PolygonUtils.isPointInSegment(segments.get(idx), segments.get(idx + 1), segments.get(idx + 2),
+							segments.get(idx + 3), x, y))
+						return toleranceOnOutside;
+				}
+			}
+		}
+
+		// 2. Count the edges crossed by a vertical ray from the point to the top.
+		// Every edge is counted only in the cell where the ray crosses it.
+		boolean inside = false;
+		int c = col(x);
+		int pointRow = row(y);
+
+		for (int r = pointRow; r < rows; r++) {
+			IntArray cell = cells[r * cols + c];
+
+			if (cell == null)
+				continue;
+
+			for (int i = 0; i < cell.size; i++) {
+				int s = cell.get(i);
+
+				if (owners.get(s) != p)
+					continue;
+
+				int idx = s * 4;
+
+				float leftX = segments.get(idx);
+				float leftY = segments.get(idx + 1);
+				float rightX = segments.get(idx + 2);
+				float rightY = segments.get(idx + 3);
+
+				if (leftX > rightX) {
+					leftX = rightX;
+					leftY = rightY;
+					rightX = segments.get(idx);
+					rightY = segments.get(idx + 1);
+				}
+
+				if (leftX < x && x <= rightX && (y - leftY) * (rightX - leftX) < (rightY - leftY) * (x - leftX)) {
+					float crossY = leftY + (rightY - leftY) * (x - leftX) / (rightX - leftX);
+					int crossRow = row(crossY);
+					crossRow = Math.max(crossRow, row(Math.min(leftY, rightY)));
+					crossRow = Math.min(crossRow, row(Math.max(leftY, rightY)));
+					crossRow = Math.max(crossRow, pointRow);
+
+					if (crossRow == r)
+						inside = !inside;
+				}
+			}
+		}
+
+		return inside;
+	}
+
+	private int addSegment(Polygon owner, float x1, float y1, float x2, float y2) {
+		int s;
+
+		if (freeSegments.size > 0) {
+			s = freeSegments.pop();
+			int idx = s * 4;
+			segments.set(idx, x1);
+			segments.set(idx + 1, y1);
+			segments.set(idx + 2, x2);
+			segments.set(idx + 3, y2);
+			owners.set(s, owner);
+		} else {
+			s = owners.size;
+			segments.add(x1, y1, x2, y2);
+			owners.add(owner);
+		}
+
+		int c0 = col(Math.min(x1, x2)), c1 = col(Math.max(x1, x2));
+		int r0 = row(Math.min(y1, y2)), r1 = row(Math.max(y1, y2));
+
+		for (int r = r0; r <= r1; r++) {
+			for (int c = c0; c <= c1; c++) {
+				int cellIdx = r * cols + c;
+
+				if (cells[cellIdx] == null)
+					cells[cellIdx] = new IntArray(4);
+
+				cells[cellIdx].add(s);
+			}
+		}
+
+		return s;
+	}
+
+	private int col(float x) {
+		int c = (int) Math.floor((x - minX) / cellSize);
+
+		return Math.max(0, Math.min(cols - 1, c));
+	}
+
+	private int row(float y) {
+		int r = (int) Math.floor((y - minY) / cellSize);
+
+		return Math.max(0, Math.min(rows - 1, r));
+	}
+
+	private static class PolygonEntry {
+		final IntArray segments = new IntArray(8);
+		final Rectangle bounds = new Rectangle();
+	}
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.Deflater;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.bladecoder.engine.util.EngineLogger;
+
+/**
+ * Writes the saved games in a background thread.
+ * 
+ * The game state is captured in the render thread and it is serialized, with
+ * the screenshot, in the background thread. The saves are written in order and
+ * each file is replaced atomically.
+ * 
+ * @author rgarcia
+ */
+public class AsyncSaver {
+	/**
+	 * A snapshot of the game state that doesn't change after being captured.
+	 */
+	public interface GameState {
+		/**
+		 * Called in the background thread.
+		 */
+		void write(OutputStream out) throws IOException;
+	}
+
+	public interface SaveListener {
+		/**
+		 * Called in the render thread when the save has finished.
+		 * 
+		 * @param error null if the game was saved.
+		 */
+		void saved(String filename, IOException error);
+	}
+
+	private final ExecutorService executor;
+
+	/** The last save submitted. The saves finish in order. */
+	private Future<?> last;
+
+	public AsyncSaver() {
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "SaveGame");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/**
+	 * Must be called from the render thread.
+	 * 
+	 * @param state      the game state to serialize.
+	 * @param screenshot disposed when written. Can be null.
+	 * @param listener   can be null.
+	 */
+	public void save(final String filename, final AtomicFile file, final GameState state,
+			final AtomicFile screenshotFile, final Pixmap screenshot, final SaveListener listener) {
+
+		last = executor.submit(new Runnable() {
+			@Override
+			public void run() {
+				IOException error = null;
+
+				try {
+					write(file, state);
+
+					if (screenshot != null)
+						writePNG(screenshotFile, screenshot);
+				} catch (IOException e) {
+					error = e;
+				} catch (RuntimeException e) {
+					error = new IOException(e.getMessage(), e);
+				} finally {
+					if (screenshot != null)
+						screenshot.dispose();
+				}
+
+				if (error != null)
+					EngineLogger.error("ERROR SAVING GAME: " + error.getMessage());
+
+				if (listener != null) {
+					final IOException e = error;
+
+					Gdx.app.postRunnable(new Runnable() {
+						@Override
+						public void run() {
+							listener.saved(filename, e);
+						}
+					});
+				}
+			}
+		});
+	}
+
+	private void write(AtomicFile file, GameState state) throws IOException {
+		try {
+			OutputStream out = file.startWrite();
+			state.write(out);
+			file.finishWrite();
+		} catch (IOException e) {
+			file.failWrite();
+			throw e;
+		}
+	}
+
+	private void writePNG(AtomicFile file, Pixmap pixmap) throws IOException {
+		PixmapIO.PNG png = new PixmapIO.PNG((int) (pixmap.getWidth() * pixmap.getHeight() * 1.5f));
+
+		try {
+			png.setFlipY(true);
+			png.setCompression(Deflater.DEFAULT_COMPRESSION);
+			png.write(file.startWrite(), pixmap);
+			file.finishWrite();
+		} catch (IOException e) {
+			file.failWrite();
+			throw e;
+		} finally {
+			png.dispose();
+		}
+	}
+
+	/**
+	 * Blocks until all the submitted saves are written.
+	 */
+	public void finish() {
+		if (last == null)
+			return;
+
+		try {
+			last.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			EngineLogger.error("ERROR SAVING GAME", e);
+		}
+
+		last = null;
+	}
+
+	public boolean isSaving() {
+		return last != null && !last.isDone();
+	}
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Writes a file in a temporary file that replaces the original file only when
+ * it is complete. If the game crashes while saving, the previous file is kept
+ * instead of a torn one.
+ * 
+ * @author rgarcia
+ */
+public class AtomicFile {
+	private static final String TMP_EXT = ".tmp";
+	private static final String BACKUP_EXT = ".bak";
+
+	private final FileHandle file;
+	private final FileHandle tmp;
+	private final FileHandle backup;
+
+	private FileOutputStream out;
+
+	public AtomicFile(FileHandle file) {
+		this.file = file;
+		tmp = file.sibling(file.name() + TMP_EXT);
+		backup = file.sibling(file.name() + BACKUP_EXT);
+	}
+
+	public FileHandle getFile() {
+		return file;
+	}
+
+	public OutputStream startWrite() throws IOException {
+		tmp.parent().mkdirs();
+		out = new FileOutputStream(tmp.file());
+
+		return out;
+	}
+
+	/**
+	 * Syncs the temporary file to disk and moves it over the original file.
+	 */
+	public void finishWrite() throws IOException {
+		try {
+			out.flush();
+			out.getFD().sync();
+		} finally {
+			out.close();
+			out = null;
+		}
+
+		// rename() replaces the original file atomically in POSIX and Android
+		if (tmp.file().renameTo(file.file()))
+			return;
+
+		// Where rename() can not replace a file, the original file is moved
+		// to a backup first. It is never deleted before the new one is in
+		// place. Without original file, a backup left by a crash is the last
+		// saved file.
+		if (file.exists()) {
+			backup.delete();
+
+			if (!file.file().renameTo(backup.file()))
+				throw new IOException("Error moving " + file.path() + " to " + backup.path());
+		}
+
+		if (!tmp.file().renameTo(file.file())) {
+			backup.file().renameTo(file.file());
+			throw new IOException("Error moving " + tmp.path() + " to " + file.path());
+		}
+
+		backup.delete();
+	}
+
+	/**
+	 * Deletes the temporary file. The original file is not modified.
+	 */
+	public void failWrite() {
+		if (out != null) {
+			try {
+				out.close();
+			} catch (IOException e) {
+			}
+
+			out = null;
+		}
+
+		tmp.delete();
+	}
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+import com.badlogic.gdx.utils.SerializationException;
+
+/**
+ * Reads the binary game state format written by BinaryJsonWriter as a JSON
+ * tree, so it can be read by the Serializable objects like a JSON file.
+ * 
+ * @author rgarcia
+ */
+public class BinaryJsonReader {
+	private byte[] data;
+	private int pos;
+
+	private final Array<String> strings = new Array<>();
+
+	/**
+	 * @return true if the data starts with the binary format header.
+	 */
+	public static boolean isBinary(byte[] data) {
+		if (data.length < BinaryJsonWriter.MAGIC.length)
+			return false;
+
+		for (int i = 0; i < BinaryJsonWriter.MAGIC.length; i++) {
+			if (data[i] != BinaryJsonWriter.MAGIC[i])
+				return false;
+		}
+
+		return true;
+	}
+
+	public JsonValue parse(byte[] data) {
+		if (!isBinary(data))
+			throw new SerializationException("Not a binary game state.");
+
+		this.data = data;
+		pos = BinaryJsonWriter.MAGIC.length;
+		strings.clear();
+
+		try {
+			int version = readVarInt();
+
+			if (version > BinaryJsonWriter.SCHEMA_VERSION)
+				throw new SerializationException("Unsupported binary game state version: " + version);
+
+			return readValue(data[pos++]);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new SerializationException("Truncated binary game state.", e);
+		} finally {
+			this.data = null;
+			strings.clear();
+		}
+	}
+
+	private JsonValue readValue(int tag) {
+		switch (tag) {
+		case BinaryJsonWriter.OBJECT:
+		case BinaryJsonWriter.ARRAY:
+			JsonValue v = new JsonValue(tag == BinaryJsonWriter.OBJECT ? ValueType.object : ValueType.array);
+			JsonValue last = null;
+			int t;
+
+			while ((t = data[pos++]) != BinaryJsonWriter.END) {
+				String name = null;
+
+				if (tag == BinaryJsonWriter.OBJECT) {
+					if (t != BinaryJsonWriter.NAME)
+						throw new SerializationException("Name expected at: " + (pos - 1));
+
+					name = readString();
+					t = data[pos++];
+				}
+
+				JsonValue c = readValue(t);
+				c.name = name;
+				c.parent = v;
+
+				// linked by hand, addChild() walks the list for every child
+				if (last == null) {
+					v.child = c;
+				} else {
+					last.next = c;
+					c.prev = last;
+				}
+
+				last = c;
+				v.size++;
+			}
+
+			// get(size - 1) returns the last child directly
+			v.last = last;
+
+			return v;
+		case BinaryJsonWriter.STRING:
+			return new JsonValue(readString());
+		case BinaryJsonWriter.LONG:
+			return new JsonValue(readVarLong());
+		case BinaryJsonWriter.FLOAT:
+			return new JsonValue(Float.intBitsToFloat(readInt()));
+		case BinaryJsonWriter.DOUBLE:
+			return new JsonValue(Double.longBitsToDouble(((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL)));
+		case BinaryJsonWriter.TRUE:
+			return new JsonValue(true);
+		case BinaryJsonWriter.FALSE:
+			return new JsonValue(false);
+		case BinaryJsonWriter.NULL:
+			return new JsonValue(ValueType.nullValue);
+		default:
+			throw new SerializationException("Unknown token " + tag + " at: " + (pos - 1));
+		}
+	}
+
+	private String readString() {
+		int idx = readVarInt();
+
+		if (idx != 0)
+			return strings.get(idx - 1);
+
+		int len = readVarInt();
+
+		if (pos + len > data.length)
+			throw new SerializationException("Truncated binary game state.");
+
+		String s = new String(data, pos, len, BinaryJsonWriter.UTF8);
+		pos += len;
+		strings.add(s);
+
+		return s;
+	}
+
+	private int readInt() {
+		int v = ((data[pos] & 0xFF) << 24) | ((data[pos + 1] & 0xFF) << 16) | ((data[pos + 2] & 0xFF) << 8)
+				| (data[pos + 3] & 0xFF);
+		pos += 4;
+
+		return v;
+	}
+
+	private int readVarInt() {
+		int v = 0;
+		int shift = 0;
+		int b;
+
+		do {
+			b = data[pos++];
+			v |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+
+		return v;
+	}
+
+	private long readVarLong() {
+		long v = 0;
+		int shift = 0;
+		int b;
+
+		do {
+			b = data[pos++];
+			v |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+
+		// zigzag
+		return (v >>> 1) ^ -(v & 1);
+	}
+}
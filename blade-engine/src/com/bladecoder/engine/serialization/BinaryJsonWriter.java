@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * A JsonWriter that writes the binary game state format read by
+ * BinaryJsonReader. Set it in a Json object with setWriter() to write the
+ * Serializable objects in binary.
+ * 
+ * The format is a header with the schema version followed by the JSON tokens.
+ * The names and the string values are interned: the first time a string
+ * appears it is written, later only its index is written. Integers are written
+ * as zigzag varints.
+ * 
+ * @author rgarcia
+ */
+public class BinaryJsonWriter extends JsonWriter {
+	static final byte[] MAGIC = { 'B', 'G', 'S' };
+	static final int SCHEMA_VERSION = 1;
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	static final int OBJECT = 1;
+	static final int ARRAY = 2;
+	static final int END = 3;
+	static final int NAME = 4;
+	static final int STRING = 5;
+	static final int LONG = 6;
+	static final int FLOAT = 7;
+	static final int DOUBLE = 8;
+	static final int TRUE = 9;
+	static final int FALSE = 10;
+	static final int NULL = 11;
+
+	private final DataOutputStream out;
+
+	/** Index of the strings already written */
+	private final ObjectIntMap<String> strings = new ObjectIntMap<>();
+
+	public BinaryJsonWriter(OutputStream out) throws IOException {
+		super(new NullWriter());
+
+		this.out = new DataOutputStream(out);
+		this.out.write(MAGIC);
+		writeVarInt(SCHEMA_VERSION);
+	}
+
+	@Override
+	public JsonWriter name(String name) throws IOException {
+		out.write(NAME);
+		writeString(name);
+		return this;
+	}
+
+	@Override
+	public JsonWriter object() throws IOException {
+		out.write(OBJECT);
+		return this;
+	}
+
+	@Override
+	public JsonWriter array() throws IOException {
+		out.write(ARRAY);
+		return this;
+	}
+
+	@Override
+	public JsonWriter pop() throws IOException {
+		out.write(END);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(Object value) throws IOException {
+		if (value == null) {
+			out.write(NULL);
+		} else if (value instanceof Boolean) {
+			out.write((Boolean) value ? TRUE : FALSE);
+		} else if (value instanceof Float) {
+			out.write(FLOAT);
+			out.writeFloat((Float) value);
+		} else if (value instanceof Double) {
+			out.write(DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof Number) {
+			out.write(LONG);
+			writeVarLong(((Number) value).longValue());
+		} else {
+			out.write(STRING);
+			writeString(value.toString());
+		}
+
+		return this;
+	}
+
+	// Json writes the strings, the enums and null with value(String) and
+	// write(JsonValue) uses the primitive methods, the base versions write to
+	// the NullWriter
+
+	@Override
+	public JsonWriter value(String value) throws IOException {
+		return value((Object) value);
+	}
+
+	@Override
+	public JsonWriter value(boolean value) throws IOException {
+		out.write(value ? TRUE : FALSE);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(int value) throws IOException {
+		return value((long) value);
+	}
+
+	@Override
+	public JsonWriter value(long value) throws IOException {
+		out.write(LONG);
+		writeVarLong(value);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(float value) throws IOException {
+		out.write(FLOAT);
+		out.writeFloat(value);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(double value) throws IOException {
+		out.write(DOUBLE);
+		out.writeDouble(value);
+		return this;
+	}
+
+	// the named versions use the state of the base JsonWriter, that is not
+	// updated by this writer
+
+	@Override
+	public JsonWriter object(String name) throws IOException {
+		return name(name).object();
+	}
+
+	@Override
+	public JsonWriter array(String name) throws IOException {
+		return name(name).array();
+	}
+
+	@Override
+	public JsonWriter json(String name, String json) throws IOException {
+		return name(name).json(json);
+	}
+
+	@Override
+	public JsonWriter set(String name, Object value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, String value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, boolean value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, int value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, long value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, float value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, double value) throws IOException {
+		return name(name).value(value);
+	}
+
+	/**
+	 * The JSON text is converted to binary tokens.
+	 */
+	@Override
+	public JsonWriter json(String json) throws IOException {
+		write(new JsonReader().parse(json));
+		return this;
+	}
+
+	/**
+	 * Writes a JSON tree. Used to convert JSON files to the binary format.
+	 */
+	public void write(JsonValue v) throws IOException {
+		switch (v.type()) {
+		case object:
+		case array:
+			if (v.isObject())
+				object();
+			else
+				array();
+
+			for (JsonValue c = v.child; c != null; c = c.next) {
+				if (v.isObject())
+					name(c.name);
+
+				write(c);
+			}
+
+			pop();
+			break;
+		case stringValue:
+			value(v.asString());
+			break;
+		case doubleValue:
+			value(v.asDouble());
+			break;
+		case longValue:
+			value(v.asLong());
+			break;
+		case booleanValue:
+			value(v.asBoolean());
+			break;
+		default:
+			value(null);
+		}
+	}
+
+	private void writeString(String s) throws IOException {
+		int idx = strings.get(s, -1);
+
+		if (idx != -1) {
+			writeVarInt(idx + 1);
+		} else {
+			// 0 means a new string
+			byte[] bytes = s.getBytes(UTF8);
+			writeVarInt(0);
+			writeVarInt(bytes.length);
+			out.write(bytes);
+			strings.put(s, strings.size);
+		}
+	}
+
+	private void writeVarInt(int v) throws IOException {
+		while ((v & ~0x7F) != 0) {
+			out.write((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+
+		out.write(v);
+	}
+
+	private void writeVarLong(long v) throws IOException {
+		// zigzag encoding, small negative numbers use few bytes
+		v = (v << 1) ^ (v >> 63);
+
+		while ((v & ~0x7FL) != 0) {
+			out.write((int) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+
+		out.write((int) v);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	static class NullWriter extends Writer {
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
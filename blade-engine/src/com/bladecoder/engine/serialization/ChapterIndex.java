@@ -0,0 +1,264 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+
+/**
+ * Index of the scenes of a chapter file.
+ * 
+ * The chapter text is scanned once to find where every scene starts and ends,
+ * without parsing it. The scenes are parsed later, one by one, when they are
+ * needed. The scan expects the chapters written by the editor, where the
+ * string values are always quoted.
+ * 
+ * @author rgarcia
+ */
+public class ChapterIndex {
+	private final char[] data;
+
+	/** Start and length in 'data' of the scenes not parsed yet, in file order */
+	private final LinkedHashMap<String, int[]> ranges = new LinkedHashMap<>();
+
+	/** The "scenes" object of the chapter, braces included */
+	private int scenesStart = -1;
+	private int scenesEnd = -1;
+
+	private boolean escapedKey;
+
+	private ChapterIndex(char[] data) {
+		this.data = data;
+	}
+
+	/**
+	 * Scans a chapter file.
+	 * 
+	 * @return the index or null if the structure of the chapter is not the
+	 *         expected. In that case the chapter must be parsed at once.
+	 */
+	public static ChapterIndex create(char[] data) {
+		ChapterIndex index = new ChapterIndex(data);
+
+		if (!index.scan())
+			return null;
+
+		return index;
+	}
+
+	/**
+	 * Parses the chapter without the scenes. The "scenes" value is replaced by
+	 * an empty object.
+	 */
+	public JsonValue parseChapter() {
+		int scenesLength = scenesEnd - scenesStart;
+		char[] chapter = new char[data.length - scenesLength + 2];
+
+		System.arraycopy(data, 0, chapter, 0, scenesStart);
+		chapter[scenesStart] = '{';
+		chapter[scenesStart + 1] = '}';
+		System.arraycopy(data, scenesEnd, chapter, scenesStart + 2, data.length - scenesEnd);
+
+		return new JsonReader().parse(chapter, 0, chapter.length);
+	}
+
+	/**
+	 * Parses a scene and removes it from the index.
+	 * 
+	 * @return the scene or null if the scene is not in the index.
+	 */
+	public JsonValue parseScene(String id) {
+		int[] range = ranges.remove(id);
+
+		if (range == null)
+			return null;
+
+		// the last parameter is the end position, not the length
+		JsonValue scene = new JsonReader().parse(data, range[0], range[0] + range[1]);
+		scene.setName(id);
+
+		return scene;
+	}
+
+	public boolean contains(String id) {
+		return ranges.containsKey(id);
+	}
+
+	/**
+	 * @return the id of the scenes not parsed yet.
+	 */
+	public Collection<String> getSceneIds() {
+		return ranges.keySet();
+	}
+
+	public boolean isEmpty() {
+		return ranges.isEmpty();
+	}
+
+	/**
+	 * Finds the "scenes" object of the root and the range of every scene inside
+	 * it. The strings and comments are skipped, so braces inside them are not
+	 * counted.
+	 */
+	private boolean scan() {
+		int depth = 0;
+		String key = null;
+		boolean inScenes = false;
+		String sceneId = null;
+		int sceneStart = -1;
+
+		for (int i = 0; i < data.length; i++) {
+			char c = data[i];
+
+			switch (c) {
+			case '{':
+			case '[':
+				depth++;
+
+				if (depth == 2 && c == '{' && scenesStart == -1 && "scenes".equals(key)) {
+					inScenes = true;
+					scenesStart = i;
+				} else if (inScenes && depth == 3 && key != null) {
+					sceneId = key;
+					sceneStart = i;
+				}
+
+				key = null;
+				break;
+			case '}':
+			case ']':
+				if (inScenes && depth == 3 && sceneId != null) {
+					ranges.put(sceneId, new int[] { sceneStart, i + 1 - sceneStart });
+					sceneId = null;
+				} else if (inScenes && depth == 2) {
+					inScenes = false;
+					scenesEnd = i + 1;
+				}
+
+				depth--;
+				key = null;
+
+				if (depth < 0)
+					return false;
+				break;
+			case '"': {
+				int end = skipString(i);
+
+				if (end == -1)
+					return false;
+
+				key = isKeyDepth(depth, inScenes) ? readKey(i + 1, end, end + 1) : null;
+				i = end;
+				break;
+			}
+			case '/':
+				if (i + 1 < data.length && (data[i + 1] == '/' || data[i + 1] == '*')) {
+					i = skipComment(i);
+
+					if (i == -1)
+						return false;
+				}
+				break;
+			case ':':
+			case ',':
+				break;
+			default:
+				if (Character.isWhitespace(c))
+					break;
+
+				// unquoted names and values of the 'javascript' and 'minimal'
+				// formats
+				int end = i;
+
+				while (end < data.length && !isDelimiter(data[end]))
+					end++;
+
+				key = isKeyDepth(depth, inScenes) ? readKey(i, end, end) : null;
+				i = end - 1;
+				break;
+			}
+		}
+
+		return depth == 0 && scenesStart != -1 && scenesEnd != -1 && !escapedKey;
+	}
+
+	private static boolean isKeyDepth(int depth, boolean inScenes) {
+		return depth == 1 || (inScenes && depth == 2);
+	}
+
+	/**
+	 * @return the text between start and end if it is followed by ':', null if
+	 *         it is a value.
+	 */
+	private String readKey(int start, int end, int next) {
+		while (next < data.length && Character.isWhitespace(data[next]))
+			next++;
+
+		if (next == data.length || data[next] != ':')
+			return null;
+
+		String key = new String(data, start, end - start);
+
+		// the escaped names are not supported, the chapter is parsed at once
+		if (key.indexOf('\\') != -1)
+			escapedKey = true;
+
+		return key;
+	}
+
+	/**
+	 * @return the position of the closing quote or -1 if not found.
+	 */
+	private int skipString(int start) {
+		for (int i = start + 1; i < data.length; i++) {
+			if (data[i] == '\\')
+				i++;
+			else if (data[i] == '"')
+				return i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return the last position of the comment or -1 if it is not closed.
+	 */
+	private int skipComment(int start) {
+		if (data[start + 1] == '/') {
+			int i = start + 2;
+
+			while (i < data.length && data[i] != '\n' && data[i] != '\r')
+				i++;
+
+			return i - 1;
+		}
+
+		for (int i = start + 2; i < data.length - 1; i++) {
+			if (data[i] == '*' && data[i + 1] == '/')
+				return i + 1;
+		}
+
+		return -1;
+	}
+
+	private static boolean isDelimiter(char c) {
+		return c == ':' || c == ',' || c == '{' || c == '}' || c == '[' || c == ']' || c == '"'
+				|| Character.isWhitespace(c);
+	}
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+
+/**
+ * Converts saved games between the JSON and the binary formats. The format of
+ * the input file is detected by its header and the output file is written in
+ * the other format.
+ * 
+ * Run with: gradlew :blade-engine:convertGameState --args="input output"
+ * 
+ * @author rgarcia
+ */
+public class GameStateConverter {
+
+	private GameStateConverter() {
+	}
+
+	/**
+	 * @return true if the file has been converted to binary, false if it has been
+	 *         converted to JSON.
+	 */
+	public static boolean convert(FileHandle in, FileHandle out) throws IOException {
+		byte[] data = in.readBytes();
+
+		if (BinaryJsonReader.isBinary(data)) {
+			JsonValue root = new BinaryJsonReader().parse(data);
+			out.writeString(root.prettyPrint(OutputType.javascript, 0), false, "UTF-8");
+
+			return false;
+		}
+
+		JsonValue root = new JsonReader().parse(new String(data, "UTF-8"));
+		OutputStream os = new FileOutputStream(out.file());
+
+		try {
+			BinaryJsonWriter writer = new BinaryJsonWriter(os);
+			writer.write(root);
+			writer.flush();
+		} finally {
+			os.close();
+		}
+
+		return true;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: GameStateConverter input_file output_file");
+			System.exit(1);
+		}
+
+		FileHandle in = new FileHandle(new File(args[0]));
+		FileHandle out = new FileHandle(new File(args[1]));
+
+		long size = in.length();
+		boolean binary = convert(in, out);
+
+		System.out.println((binary ? "JSON -> BINARY: " : "BINARY -> JSON: ") + size + " -> " + out.length()
+				+ " bytes");
+	}
+}
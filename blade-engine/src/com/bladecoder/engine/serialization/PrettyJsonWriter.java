@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Indents the JSON written by the libgdx JsonWriter while it is written. Gives
+ * the same result as Json.prettyPrint() without building the whole document in
+ * a String.
+ * 
+ * Only valid for the 'json' and 'javascript' output types, where all the
+ * string values are quoted.
+ * 
+ * @author rgarcia
+ */
+public class PrettyJsonWriter extends Writer {
+	private final Writer out;
+
+	private int indent;
+	private boolean inString;
+	private boolean escape;
+
+	/** A new line must be written before the next char */
+	private boolean newLine;
+
+	/** The last char written was '{' or '[' */
+	private boolean open;
+
+	public PrettyJsonWriter(Writer out) {
+		this.out = out;
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		if (inString) {
+			out.write(c);
+
+			if (escape)
+				escape = false;
+			else if (c == '\\')
+				escape = true;
+			else if (c == '"')
+				inString = false;
+
+			return;
+		}
+
+		if (c == '}' || c == ']') {
+			indent--;
+
+			// empty objects and arrays in one line
+			if (!open)
+				writeNewLine();
+
+			newLine = false;
+			open = false;
+			out.write(c);
+			return;
+		}
+
+		if (newLine) {
+			writeNewLine();
+			newLine = false;
+		}
+
+		open = false;
+
+		switch (c) {
+		case '{':
+		case '[':
+			out.write(c);
+			indent++;
+			newLine = true;
+			open = true;
+			break;
+		case ',':
+			out.write(c);
+			newLine = true;
+			break;
+		case ':':
+			out.write(": ");
+			break;
+		case '"':
+			inString = true;
+			out.write(c);
+			break;
+		default:
+			out.write(c);
+		}
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		for (int i = off; i < off + len; i++)
+			write(cbuf[i]);
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		for (int i = off; i < off + len; i++)
+			write(str.charAt(i));
+	}
+
+	private void writeNewLine() throws IOException {
+		out.write('\n');
+
+		for (int i = 0; i < indent; i++)
+			out.write('\t');
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.serialization;
+
+import java.io.IOException;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ByteArray;
+import com.badlogic.gdx.utils.JsonWriter;
+
+/**
+ * A JsonWriter that records the written tokens to replay them later in other
+ * JsonWriter.
+ * 
+ * The recorded values are strings and boxed primitives, so the recording is a
+ * snapshot of the serialized objects that can be written from other thread
+ * while the objects change.
+ * 
+ * @author rgarcia
+ */
+public class RecordedJsonWriter extends JsonWriter {
+	private static final byte NAME = 1;
+	private static final byte OBJECT = 2;
+	private static final byte ARRAY = 3;
+	private static final byte POP = 4;
+	private static final byte VALUE = 5;
+	private static final byte JSON = 6;
+	private static final byte STRING = 7;
+	private static final byte PRIMITIVE = 8;
+
+	private final ByteArray tokens;
+
+	/** The names and values of the tokens that have one */
+	private final Array<Object> args;
+
+	public RecordedJsonWriter(int capacity) {
+		super(new BinaryJsonWriter.NullWriter());
+
+		tokens = new ByteArray(capacity);
+		args = new Array<>(capacity);
+	}
+
+	@Override
+	public JsonWriter name(String name) throws IOException {
+		tokens.add(NAME);
+		args.add(name);
+		return this;
+	}
+
+	@Override
+	public JsonWriter object() throws IOException {
+		tokens.add(OBJECT);
+		return this;
+	}
+
+	@Override
+	public JsonWriter array() throws IOException {
+		tokens.add(ARRAY);
+		return this;
+	}
+
+	@Override
+	public JsonWriter pop() throws IOException {
+		tokens.add(POP);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(Object value) throws IOException {
+		// other objects are written as strings, they can be mutable
+		if (value != null && !(value instanceof String || value instanceof Number || value instanceof Boolean))
+			value = value.toString();
+
+		tokens.add(VALUE);
+		args.add(value);
+		return this;
+	}
+
+	// Json writes the strings, the enums and null with value(String) and the
+	// other writers can use the primitive methods. The base JsonWriter writes
+	// them differently so the same method must be called when replaying.
+
+	@Override
+	public JsonWriter value(String value) throws IOException {
+		tokens.add(STRING);
+		args.add(value);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(boolean value) throws IOException {
+		return primitive(value);
+	}
+
+	@Override
+	public JsonWriter value(int value) throws IOException {
+		return primitive(value);
+	}
+
+	@Override
+	public JsonWriter value(long value) throws IOException {
+		return primitive(value);
+	}
+
+	@Override
+	public JsonWriter value(float value) throws IOException {
+		return primitive(value);
+	}
+
+	@Override
+	public JsonWriter value(double value) throws IOException {
+		return primitive(value);
+	}
+
+	private JsonWriter primitive(Object value) {
+		tokens.add(PRIMITIVE);
+		args.add(value);
+		return this;
+	}
+
+	@Override
+	public JsonWriter json(String json) throws IOException {
+		tokens.add(JSON);
+		args.add(json);
+		return this;
+	}
+
+	// the named versions use the state of the base JsonWriter, that is not
+	// updated when recording
+
+	@Override
+	public JsonWriter object(String name) throws IOException {
+		return name(name).object();
+	}
+
+	@Override
+	public JsonWriter array(String name) throws IOException {
+		return name(name).array();
+	}
+
+	@Override
+	public JsonWriter json(String name, String json) throws IOException {
+		return name(name).json(json);
+	}
+
+	@Override
+	public JsonWriter set(String name, Object value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, String value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, boolean value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, int value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, long value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, float value) throws IOException {
+		return name(name).value(value);
+	}
+
+	@Override
+	public JsonWriter set(String name, double value) throws IOException {
+		return name(name).value(value);
+	}
+
+	public int size() {
+		return tokens.size;
+	}
+
+	/**
+	 * Writes the recorded tokens in the writer.
+	 */
+	public void replay(JsonWriter writer) throws IOException {
+		int arg = 0;
+
+		for (int i = 0; i < tokens.size; i++) {
+			switch (tokens.get(i)) {
+			case NAME:
+				writer.name((String) args.get(arg++));
+				break;
+			case OBJECT:
+				writer.object();
+				break;
+			case ARRAY:
+				writer.array();
+				break;
+			case POP:
+				writer.pop();
+				break;
+			case VALUE:
+				writer.value(args.get(arg++));
+				break;
+			case STRING:
+				writer.value((String) args.get(arg++));
+				break;
+			case PRIMITIVE:
+				replayPrimitive(writer, args.get(arg++));
+				break;
+			case JSON:
+				writer.json((String) args.get(arg++));
+				break;
+			}
+		}
+	}
+
+	private static void replayPrimitive(JsonWriter writer, Object value) throws IOException {
+		if (value instanceof Boolean)
+			writer.value(((Boolean) value).booleanValue());
+		else if (value instanceof Integer)
+			writer.value(((Integer) value).intValue());
+		else if (value instanceof Long)
+			writer.value(((Long) value).longValue());
+		else if (value instanceof Float)
+			writer.value(((Float) value).floatValue());
+		else
+			writer.value(((Double) value).doubleValue());
+	}
+}
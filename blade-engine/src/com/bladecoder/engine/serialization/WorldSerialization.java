@@ -1,21 +1,28 @@
 package com.bladecoder.engine.serialization;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Map;
+import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.Json.Serializable;
 import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
 import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.badlogic.gdx.utils.SerializationException;
 import com.badlogic.gdx.utils.reflect.ReflectionException;
 import com.bladecoder.engine.actions.Action;
 import com.bladecoder.engine.actions.ActionFactory;
@@ -45,8 +52,19 @@ public class WorldSerialization implements Serializable {
 
 	private static final int SCREENSHOT_DEFAULT_WIDTH = 300;
 
+	private static final int WRITE_BUFFER_SIZE = 32 * 1024;
+
 	private final World w;
 
+	/** Writes the saved games in background. Created when needed. */
+	private AsyncSaver saver;
+
+	/** To allocate the memory of the next async save only once */
+	private int lastSaveTokens = 1024;
+
+	/** Scenes of the current chapter not created yet. */
+	private ChapterIndex chapterIndex;
+
 	public WorldSerialization(World w) {
 		this.w = w;
 	}
@@ -146,8 +164,21 @@ public class WorldSerialization implements Serializable {
 
 		if (EngineAssetManager.getInstance().getModelFile(chapterName + EngineAssetManager.CHAPTER_EXT).exists()) {
 
-			JsonValue root = new JsonReader().parse(EngineAssetManager.getInstance()
-					.getModelFile(chapterName + EngineAssetManager.CHAPTER_EXT).reader("UTF-8"));
+			char[] data = EngineAssetManager.getInstance().getModelFile(chapterName + EngineAssetManager.CHAPTER_EXT)
+					.readString("UTF-8").toCharArray();
+
+			// Only the scenes used are created. The rest are created when
+			// requested to World.getScene().
+			chapterIndex = ChapterIndex.create(data);
+
+			JsonValue root;
+
+			if (chapterIndex != null) {
+				root = chapterIndex.parseChapter();
+			} else {
+				EngineLogger.debug("Chapter scenes not indexed. Loading all the scenes.");
+				root = new JsonReader().parse(data, 0, data.length);
+			}
 
 			Json json = new BladeJson(w, Mode.MODEL, initScene);
 			json.setIgnoreUnknownFields(true);
@@ -155,9 +186,9 @@ public class WorldSerialization implements Serializable {
 			read(json, root);
 
 			if (scene == null)
-				w.setCurrentScene(w.getScenes().get(w.getInitScene()), initScene, null);
+				w.setCurrentScene(w.getScene(w.getInitScene()), initScene, null);
 			else
-				w.setCurrentScene(w.getScenes().get(scene), initScene, null);
+				w.setCurrentScene(w.getScene(scene), initScene, null);
 
 			w.getI18N().loadChapter(EngineAssetManager.MODEL_DIR + chapterName);
 
@@ -174,6 +205,60 @@ public class WorldSerialization implements Serializable {
 		EngineLogger.debug("MODEL LOADING TIME (ms): " + (System.currentTimeMillis() - initTime));
 	}
 
+	/**
+	 * Creates a scene of the current chapter that has not been used yet.
+	 * 
+	 * @return the scene or null if it is not a pending scene of the chapter.
+	 */
+	public Scene loadScene(String id) {
+		if (chapterIndex == null)
+			return null;
+
+		JsonValue jsonValue = chapterIndex.parseScene(id);
+
+		if (jsonValue == null)
+			return null;
+
+		// the chapter text is not needed anymore
+		if (chapterIndex.isEmpty())
+			chapterIndex = null;
+
+		Json json = new BladeJson(w, Mode.MODEL);
+		json.setIgnoreUnknownFields(true);
+
+		return readScene(json, jsonValue);
+	}
+
+	/**
+	 * Creates all the scenes of the current chapter not used yet.
+	 */
+	public void loadAllScenes() {
+		if (chapterIndex == null)
+			return;
+
+		for (String id : chapterIndex.getSceneIds().toArray(new String[0]))
+			loadScene(id);
+	}
+
+	/**
+	 * Forgets the scenes of the chapter not created yet.
+	 */
+	public void clearChapterIndex() {
+		chapterIndex = null;
+	}
+
+	private Scene readScene(Json json, JsonValue jsonValue) {
+		Scene s = new Scene(w);
+		w.getCreatedScenes().put(jsonValue.name, s);
+		s.read(json, jsonValue);
+		s.resetCamera(w.getWidth(), w.getHeight());
+
+		// Add sounds to cache
+		cacheSounds(s);
+
+		return s;
+	}
+
 	public void saveModel(String chapterId) throws IOException {
 		EngineLogger.debug("SAVING GAME MODEL");
 
@@ -183,32 +268,26 @@ public class WorldSerialization implements Serializable {
 		Json json = new BladeJson(w, Mode.MODEL);
 		json.setOutputType(OutputType.javascript);
 
-		String s = null;
-
-		if (EngineLogger.debugMode())
-			s = json.prettyPrint(this);
-		else
-			s = json.toJson(this);
-
-		Writer w = EngineAssetManager.getInstance().getModelFile(chapterId + EngineAssetManager.CHAPTER_EXT)
-				.writer(false, "UTF-8");
-
-		try {
-			w.write(s);
-			w.flush();
-		} catch (IOException e) {
-			throw new IOException("ERROR SAVING MODEL", e);
-		} finally {
-			w.close();
-		}
+		writeJson(json, EngineAssetManager.getInstance().getModelFile(chapterId + EngineAssetManager.CHAPTER_EXT),
+				"ERROR SAVING MODEL");
 	}
 
 	public void loadGameState(FileHandle savedFile) throws IOException {
 		EngineLogger.debug("LOADING GAME STATE");
 
+		// the file can be being written
+		waitForSaves();
+
 		if (savedFile.exists()) {
 
-			JsonValue root = new JsonReader().parse(savedFile.reader("UTF-8"));
+			byte[] data = savedFile.readBytes();
+			JsonValue root;
+
+			// the binary and JSON formats are detected by the header
+			if (BinaryJsonReader.isBinary(data))
+				root = new BinaryJsonReader().parse(data);
+			else
+				root = new JsonReader().parse(new String(data, "UTF-8"));
 
 			Json json = new BladeJson(w, Mode.STATE);
 			json.setIgnoreUnknownFields(true);
@@ -226,31 +305,178 @@ public class WorldSerialization implements Serializable {
 		if (w.isDisposed())
 			return;
 
+		// a pending save must not overwrite this one
+		waitForSaves();
+
+		AtomicFile file = new AtomicFile(EngineAssetManager.getInstance().getUserFile(filename));
+
+		completePathRequests();
+
+		try {
+			writeJson(createStateJson(), createStateWriter(file.startWrite(), isBinaryState()), "ERROR SAVING GAME");
+			file.finishWrite();
+		} catch (IOException | RuntimeException e) {
+			file.failWrite();
+			throw e;
+		}
+
+		// Save Screenshot
+		if (screenshot)
+			w.takeScreenshot(filename + ".png", SCREENSHOT_DEFAULT_WIDTH);
+	}
+
+	/**
+	 * Saves the game without stopping the render thread. The game state and the
+	 * screenshot are captured when calling this method and they are serialized
+	 * and written in background.
+	 * 
+	 * @param listener called in the render thread when the files are written. Can
+	 *                 be null.
+	 */
+	public void saveGameStateAsync(String filename, boolean screenshot, AsyncSaver.SaveListener listener) {
+		EngineLogger.debug("SAVING GAME STATE IN BACKGROUND");
+
+		if (w.isDisposed())
+			return;
+
+		// The verbs, timers, tweens and callbacks can change in the next frame, so
+		// their values are captured now. The text or binary output is written in
+		// the save thread.
+		final RecordedJsonWriter state = new RecordedJsonWriter(lastSaveTokens);
+
+		completePathRequests();
+
+		try {
+			writeJson(createStateJson(), state, "ERROR SAVING GAME");
+		} catch (IOException | RuntimeException e) {
+			IOException error = e instanceof IOException ? (IOException) e : new IOException("ERROR SAVING GAME", e);
+
+			EngineLogger.error(error.getMessage());
+
+			if (listener != null)
+				listener.saved(filename, error);
+
+			return;
+		}
+
+		lastSaveTokens = state.size();
+
+		final boolean binary = isBinaryState();
+		final boolean pretty = EngineLogger.debugMode();
+
+		EngineAssetManager am = EngineAssetManager.getInstance();
+		Pixmap pixmap = null;
+		AtomicFile screenshotFile = null;
+
+		if (screenshot) {
+			pixmap = w.takeScreenshotPixmap(SCREENSHOT_DEFAULT_WIDTH);
+			screenshotFile = new AtomicFile(am.getUserFile(filename + ".png"));
+		}
+
+		if (saver == null)
+			saver = new AsyncSaver();
+
+		saver.save(filename, new AtomicFile(am.getUserFile(filename)), new AsyncSaver.GameState() {
+			@Override
+			public void write(OutputStream out) throws IOException {
+				Writer writer = createStateWriter(out, binary);
+				JsonWriter jsonWriter;
+
+				if (writer instanceof JsonWriter) {
+					jsonWriter = (JsonWriter) writer;
+				} else {
+					jsonWriter = new JsonWriter(pretty ? new PrettyJsonWriter(writer) : writer);
+					jsonWriter.setOutputType(OutputType.javascript);
+				}
+
+				state.replay(jsonWriter);
+				jsonWriter.flush();
+			}
+		}, screenshotFile, pixmap, listener);
+	}
+
+	/**
+	 * Blocks until the saves in background are written.
+	 */
+	public void waitForSaves() {
+		if (saver != null)
+			saver.finish();
+	}
+
+	public boolean isSaving() {
+		return saver != null && saver.isSaving();
+	}
+
+	private static Writer createStateWriter(OutputStream out, boolean binary) throws IOException {
+		if (binary)
+			return new BinaryJsonWriter(new BufferedOutputStream(out, WRITE_BUFFER_SIZE));
+
+		return new BufferedWriter(new OutputStreamWriter(out, "UTF-8"), WRITE_BUFFER_SIZE);
+	}
+
+	/**
+	 * The game state is written in the binary format when the
+	 * 'binary_gamestate' property is set.
+	 */
+	private static boolean isBinaryState() {
+		return Config.getInstance().getProperty(Config.BINARY_GAMESTATE_PROP, false);
+	}
+
+	/**
+	 * The walks waiting for a path search are started, so they are saved in the
+	 * character tweens.
+	 */
+	private void completePathRequests() {
+		for (Scene s : w.getCreatedScenes().values()) {
+			for (BaseActor a : s.getActors().values()) {
+				if (a instanceof CharacterActor)
+					((CharacterActor) a).completePathRequest();
+			}
+		}
+	}
+
+	private Json createStateJson() {
 		Json json = new BladeJson(w, Mode.STATE);
 		json.setOutputType(OutputType.javascript);
 		json.setSortFields(true);
 
-		String s = null;
-
-		if (EngineLogger.debugMode())
-			s = json.prettyPrint(this);
-		else
-			s = json.toJson(this);
+		return json;
+	}
 
-		Writer writer = EngineAssetManager.getInstance().getUserFile(filename).writer(false, "UTF-8");
+	/**
+	 * Writes this object to the file while it is serialized, without building
+	 * the document in memory.
+	 */
+	private void writeJson(Json json, FileHandle file, String errorMessage) throws IOException {
+		Writer writer = new BufferedWriter(file.writer(false, "UTF-8"), WRITE_BUFFER_SIZE);
 
 		try {
-			writer.write(s);
-			writer.flush();
-		} catch (IOException e) {
-			throw new IOException("ERROR SAVING GAME", e);
+			writeJson(json, writer, errorMessage);
 		} finally {
 			writer.close();
 		}
+	}
 
-		// Save Screenshot
-		if (screenshot)
-			w.takeScreenshot(filename + ".png", SCREENSHOT_DEFAULT_WIDTH);
+	/**
+	 * Pretty printed in debug mode when writing JSON.
+	 */
+	private void writeJson(Json json, Writer writer, String errorMessage) throws IOException {
+		try {
+			if (writer instanceof JsonWriter || !EngineLogger.debugMode())
+				json.setWriter(writer);
+			else
+				json.setWriter(new PrettyJsonWriter(writer));
+
+			json.writeValue(this, WorldSerialization.class);
+			writer.flush();
+		} catch (IOException e) {
+			throw new IOException(errorMessage, e);
+		} catch (SerializationException e) {
+			if (e.getCause() instanceof IOException)
+				throw new IOException(errorMessage, e.getCause());
+
+			throw e;
+		}
 	}
 
 	@Override
@@ -274,9 +500,17 @@ public class WorldSerialization implements Serializable {
 		} else {
 			json.writeValue(Config.VERSION_PROP, Config.getInstance().getProperty(Config.VERSION_PROP, null));
 
-			SortedMap<String, Scene> sortedScenes = new TreeMap<>();
-			sortedScenes.putAll(w.getScenes());
-			json.writeValue("scenes", sortedScenes, sortedScenes.getClass(), Scene.class);
+			// the scenes are read by id, so there is no need to sort them. The
+			// untouched scenes, and the scenes never used, are restored from
+			// the model.
+			json.writeObjectStart("scenes");
+
+			for (Entry<String, Scene> e : w.getCreatedScenes().entrySet()) {
+				if (e.getValue().isModified())
+					json.writeValue(e.getKey(), e.getValue(), Scene.class);
+			}
+
+			json.writeObjectEnd();
 
 			json.writeValue("currentScene", w.getCurrentScene().getId());
 			json.writeValue("inventories", w.getInventories());
@@ -332,33 +566,26 @@ public class WorldSerialization implements Serializable {
 			}
 
 			// SCENES
+			// empty when the chapter is indexed
 			JsonValue jsonScenes = jsonData.get("scenes");
-			Map<String, Scene> scenes = w.getScenes();
 
 			for (int i = 0; i < jsonScenes.size; i++) {
-				JsonValue jsonValue = jsonScenes.get(i);
-				Scene s = new Scene(w);
-				scenes.put(jsonValue.name, s);
-				s.read(json, jsonValue);
+				readScene(json, jsonScenes.get(i));
 			}
 
 			w.setInitScene(json.readValue("initScene", String.class, jsonData));
 
-			if (w.getInitScene() == null && !w.getScenes().isEmpty()) {
-				w.setInitScene(w.getScenes().keySet().toArray(new String[0])[0]);
-			}
-
-			for (Scene s : w.getScenes().values()) {
-				s.resetCamera(w.getWidth(), w.getHeight());
+			if (w.getInitScene() == null) {
+				if (chapterIndex != null && !chapterIndex.isEmpty())
+					w.setInitScene(chapterIndex.getSceneIds().iterator().next());
+				else if (!w.getCreatedScenes().isEmpty())
+					w.setInitScene(w.getCreatedScenes().keySet().toArray(new String[0])[0]);
 			}
 
 			// Load Ink story
 			if (jsonData.get("inkManager") != null) {
 				w.getInkManager().read(json, jsonData.get("inkManager"));
 			}
-
-			// Add sounds to cache
-			cacheSounds();
 		} else {
 			if (bladeVersion != null
 					&& !bladeVersion.equals(Config.getInstance().getProperty(Config.BLADE_ENGINE_VERSION_PROP, ""))) {
@@ -400,13 +627,17 @@ public class WorldSerialization implements Serializable {
 				w.getUIActors().read(json, jsonData.get("uiActors"));
 			}
 
-			for (Scene s : w.getScenes().values()) {
-				JsonValue jsonValue = jsonData.get("scenes").get(s.getId());
+			// the scenes not modified are not saved
+			JsonValue jsonScenes = jsonData.get("scenes");
+
+			for (int i = 0; i < jsonScenes.size; i++) {
+				JsonValue jsonValue = jsonScenes.get(i);
+				Scene s = w.getScene(jsonValue.name);
 
-				if (jsonValue != null)
+				if (s != null)
 					s.read(json, jsonValue);
 				else
-					EngineLogger.debug("LOAD WARNING: Scene not found in saved game: " + s.getId());
+					EngineLogger.error("LOAD GAME STATE: scene not found in the model: " + jsonValue.name);
 			}
 
 			w.setTimeOfGame(json.readValue("timeOfGame", long.class, 0L, jsonData));
@@ -443,158 +674,154 @@ public class WorldSerialization implements Serializable {
 		}
 	}
 
-	private void cacheSounds() {
-		for (Scene s : w.getScenes().values()) {
-
-			HashMap<String, Verb> verbs = s.getVerbManager().getVerbs();
+	private void cacheSounds(Scene s) {
+		HashMap<String, Verb> verbs = s.getVerbManager().getVerbs();
 
-			// Search SoundAction and PlaySoundAction
-			for (Verb v : verbs.values()) {
-				ArrayList<Action> actions = v.getActions();
+		// Search SoundAction and PlaySoundAction
+		for (Verb v : verbs.values()) {
+			ArrayList<Action> actions = v.getActions();
 
-				for (int i = 0; i < actions.size(); i++) {
+			for (int i = 0; i < actions.size(); i++) {
 
-					Action act = actions.get(i);
+				Action act = actions.get(i);
 
-					try {
-						if (act instanceof SoundAction) {
+				try {
+					if (act instanceof SoundAction) {
 
-							String actor = ActionUtils.getStringValue(act, "actor");
-							String play = ActionUtils.getStringValue(act, "play");
-							if (play != null) {
+						String actor = ActionUtils.getStringValue(act, "actor");
+						String play = ActionUtils.getStringValue(act, "play");
+						if (play != null) {
 
-								if (actor.equals("$PLAYER"))
-									actor = s.getPlayer().getId();
+							if (actor.equals("$PLAYER"))
+								actor = s.getPlayer().getId();
 
-								SoundDesc sd = w.getSounds().get(actor + "_" + play);
+							SoundDesc sd = w.getSounds().get(actor + "_" + play);
 
-								if (sd == null) {
-									EngineLogger.error(
-											"Reference to sound not found: " + s.getId() + "." + actor + "." + play);
-									continue;
-								}
+							if (sd == null) {
+								EngineLogger.error(
+										"Reference to sound not found: " + s.getId() + "." + actor + "." + play);
+								continue;
+							}
 
-								s.getSoundManager().addSoundToLoad(sd);
+							s.getSoundManager().addSoundToLoad(sd);
 
-								HashMap<String, String> params = new HashMap<>();
-								params.put("sound", sd.getId());
+							HashMap<String, String> params = new HashMap<>();
+							params.put("sound", sd.getId());
 
-								try {
-									Action a2 = ActionFactory.create(PlaySoundAction.class.getName(), params);
-									actions.set(i, a2);
-									a2.init(w);
-								} catch (ClassNotFoundException | ReflectionException e) {
-									e.printStackTrace();
-								}
-								EngineLogger.debug("Converting SoundAction:" + s.getId() + "." + v.getId());
-							} else {
-								EngineLogger
-										.debug("WARNING: Cannot convert SoundAction:" + s.getId() + "." + v.getId());
+							try {
+								Action a2 = ActionFactory.create(PlaySoundAction.class.getName(), params);
+								actions.set(i, a2);
+								a2.init(w);
+							} catch (ClassNotFoundException | ReflectionException e) {
+								e.printStackTrace();
 							}
+							EngineLogger.debug("Converting SoundAction:" + s.getId() + "." + v.getId());
+						} else {
+							EngineLogger
+									.debug("WARNING: Cannot convert SoundAction:" + s.getId() + "." + v.getId());
+						}
 
-						} else if (act instanceof PlaySoundAction) {
-							String sound = ActionUtils.getStringValue(act, "sound");
-							SoundDesc sd = w.getSounds().get(sound);
+					} else if (act instanceof PlaySoundAction) {
+						String sound = ActionUtils.getStringValue(act, "sound");
+						SoundDesc sd = w.getSounds().get(sound);
 
-							if (sd != null && sd.isPreload())
-								s.getSoundManager().addSoundToLoad(sd);
+						if (sd != null && sd.isPreload())
+							s.getSoundManager().addSoundToLoad(sd);
 
-						}
-					} catch (NoSuchFieldException | IllegalArgumentException | IllegalAccessException e) {
 					}
+				} catch (NoSuchFieldException | IllegalArgumentException | IllegalAccessException e) {
 				}
 			}
+		}
 
-			for (BaseActor a : s.getActors().values()) {
+		for (BaseActor a : s.getActors().values()) {
 
-				if (a instanceof InteractiveActor) {
-					HashMap<String, Verb> actorVerbs = ((InteractiveActor) a).getVerbManager().getVerbs();
+			if (a instanceof InteractiveActor) {
+				HashMap<String, Verb> actorVerbs = ((InteractiveActor) a).getVerbManager().getVerbs();
 
-					for (Verb v : actorVerbs.values()) {
-						ArrayList<Action> actions = v.getActions();
+				for (Verb v : actorVerbs.values()) {
+					ArrayList<Action> actions = v.getActions();
 
-						for (int i = 0; i < actions.size(); i++) {
+					for (int i = 0; i < actions.size(); i++) {
 
-							Action act = actions.get(i);
+						Action act = actions.get(i);
 
-							try {
-								if (act instanceof SoundAction) {
-
-									String actor = ActionUtils.getStringValue(act, "actor");
-									String play = ActionUtils.getStringValue(act, "play");
-
-									if (play != null) {
-										if ("$PLAYER".equals(actor))
-											actor = s.getPlayer().getId();
-
-										SoundDesc sd = w.getSounds().get(actor + "_" + play);
-
-										if (sd == null) {
-											EngineLogger.error("Reference to sound not found: " + s.getId() + "."
-													+ actor + "." + play);
-											continue;
-										}
-
-										s.getSoundManager().addSoundToLoad(sd);
-
-										HashMap<String, String> params = new HashMap<>();
-										params.put("sound", sd.getId());
-
-										try {
-											Action a2 = ActionFactory.create(PlaySoundAction.class.getName(), params);
-											actions.set(i, a2);
-											a2.init(w);
-										} catch (ClassNotFoundException | ReflectionException e) {
-											e.printStackTrace();
-										}
-										EngineLogger.debug("Converting SoundAction in:" + s.getId() + "." + a.getId()
-												+ "." + v.getId());
-									} else {
-										EngineLogger.debug("WARNING: Cannot convert SoundAction:" + s.getId() + "."
-												+ a.getId() + "." + v.getId());
+						try {
+							if (act instanceof SoundAction) {
+
+								String actor = ActionUtils.getStringValue(act, "actor");
+								String play = ActionUtils.getStringValue(act, "play");
+
+								if (play != null) {
+									if ("$PLAYER".equals(actor))
+										actor = s.getPlayer().getId();
+
+									SoundDesc sd = w.getSounds().get(actor + "_" + play);
+
+									if (sd == null) {
+										EngineLogger.error("Reference to sound not found: " + s.getId() + "."
+												+ actor + "." + play);
+										continue;
 									}
 
-								} else if (act instanceof PlaySoundAction) {
-									String sound = ActionUtils.getStringValue(act, "sound");
-									SoundDesc sd = w.getSounds().get(sound);
+									s.getSoundManager().addSoundToLoad(sd);
 
-									if (sd != null && sd.isPreload())
-										s.getSoundManager().addSoundToLoad(sd);
+									HashMap<String, String> params = new HashMap<>();
+									params.put("sound", sd.getId());
 
+									try {
+										Action a2 = ActionFactory.create(PlaySoundAction.class.getName(), params);
+										actions.set(i, a2);
+										a2.init(w);
+									} catch (ClassNotFoundException | ReflectionException e) {
+										e.printStackTrace();
+									}
+									EngineLogger.debug("Converting SoundAction in:" + s.getId() + "." + a.getId()
+											+ "." + v.getId());
+								} else {
+									EngineLogger.debug("WARNING: Cannot convert SoundAction:" + s.getId() + "."
+											+ a.getId() + "." + v.getId());
 								}
-							} catch (NoSuchFieldException | IllegalArgumentException | IllegalAccessException e) {
+
+							} else if (act instanceof PlaySoundAction) {
+								String sound = ActionUtils.getStringValue(act, "sound");
+								SoundDesc sd = w.getSounds().get(sound);
+
+								if (sd != null && sd.isPreload())
+									s.getSoundManager().addSoundToLoad(sd);
+
 							}
+						} catch (NoSuchFieldException | IllegalArgumentException | IllegalAccessException e) {
 						}
 					}
 				}
+			}
 
-				if (a instanceof SpriteActor && ((SpriteActor) a).getRenderer() instanceof AnimationRenderer) {
-					HashMap<String, AnimationDesc> anims = ((AnimationRenderer) ((SpriteActor) a).getRenderer())
-							.getAnimations();
+			if (a instanceof SpriteActor && ((SpriteActor) a).getRenderer() instanceof AnimationRenderer) {
+				HashMap<String, AnimationDesc> anims = ((AnimationRenderer) ((SpriteActor) a).getRenderer())
+						.getAnimations();
 
-					for (AnimationDesc ad : anims.values()) {
-						if (ad.sound != null) {
-							String sid = ad.sound;
+				for (AnimationDesc ad : anims.values()) {
+					if (ad.sound != null) {
+						String sid = ad.sound;
 
-							SoundDesc sd = w.getSounds().get(sid);
+						SoundDesc sd = w.getSounds().get(sid);
 
-							if (sd == null)
-								sid = a.getId() + "_" + sid;
+						if (sd == null)
+							sid = a.getId() + "_" + sid;
 
-							sd = w.getSounds().get(sid);
+						sd = w.getSounds().get(sid);
 
-							if (sd != null) {
-								if (sd.isPreload())
-									s.getSoundManager().addSoundToLoad(sd);
-							} else
-								EngineLogger.error(
-										a.getId() + ": SOUND not found: " + ad.sound + " in animation: " + ad.id);
-						}
+						if (sd != null) {
+							if (sd.isPreload())
+								s.getSoundManager().addSoundToLoad(sd);
+						} else
+							EngineLogger.error(
+									a.getId() + ": SOUND not found: " + ad.sound + " in animation: " + ad.id);
 					}
 				}
-
 			}
-		}
 
+		}
 	}
 }
@@ -14,6 +14,7 @@ import com.bladecoder.engine.model.BaseActor;
 import com.bladecoder.engine.model.InteractiveActor;
 import com.bladecoder.engine.model.World;
 import com.bladecoder.engine.util.EngineLogger;
+import com.bladecoder.engine.util.FrameStats;
 import com.bladecoder.engine.util.RectangleRenderer;
 
 public class DebugDrawer {
@@ -77,6 +78,32 @@ public class DebugDrawer {
 				sbTmp.append(") FPS:");
 				sbTmp.append(Gdx.graphics.getFramesPerSecond());
 
+				sbTmp.append(" Drawn: ");
+				sbTmp.append(w.getCurrentScene().getDrawnActors());
+				sbTmp.append(" Culled: ");
+				sbTmp.append(w.getCurrentScene().getCulledActors());
+				sbTmp.append(" Active: ");
+				sbTmp.append(w.getCurrentScene().getActiveActors());
+				sbTmp.append("/");
+				sbTmp.append(w.getCurrentScene().getActors().size());
+
+				FrameStats.Sample fs = w.getFrameStats().isEnabled() ? w.getFrameStats().getLast() : null;
+
+				if (fs != null) {
+					sbTmp.append(" Calls: ");
+					sbTmp.append(fs.renderCalls);
+					sbTmp.append(" Binds: ");
+					sbTmp.append(fs.textureBinds);
+					sbTmp.append(" Quads: ");
+					sbTmp.append(fs.quads);
+					sbTmp.append(" Saved: ");
+					sbTmp.append(fs.flushesSaved);
+					sbTmp.append(" Upd/Draw ms: ");
+					sbTmp.append((int) fs.updateMs);
+					sbTmp.append("/");
+					sbTmp.append((int) fs.drawMs);
+				}
+
 				if (w.getCurrentScene().getState() != null) {
 					sbTmp.append(" Scn State: ");
 					sbTmp.append(w.getCurrentScene().getState());
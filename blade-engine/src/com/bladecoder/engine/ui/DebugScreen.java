@@ -28,11 +28,14 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.SceneLayer;
+import com.bladecoder.engine.polygonalpathfinder.PolygonalNavGraph;
 import com.bladecoder.engine.ui.UI.Screens;
 import com.bladecoder.engine.ui.defaults.ScreenControllerHandler;
 import com.bladecoder.engine.util.Config;
 import com.bladecoder.engine.util.DPIUtils;
 import com.bladecoder.engine.util.EngineLogger;
+import com.bladecoder.engine.util.FrameStats;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -154,6 +157,80 @@ public class DebugScreen implements BladeScreen {
         table.add(new Label("Game Speed: ", ui.getSkin(), "debug"));
         table.add(sGroup);
 
+        // ------------- LAYER SORTS
+        StringBuilder sorts = new StringBuilder();
+
+        for (SceneLayer layer : ui.getWorld().getCurrentScene().getLayers()) {
+            if (!layer.isDynamic())
+                continue;
+
+            sorts.append(layer.getName()).append(": ").append(layer.getSortCount()).append(" sorts, ")
+                    .append(layer.getMovedActors()).append(" moved  ");
+        }
+
+        table.row().pad(5).align(Align.left);
+        table.add(new Label("Layer Sorts: ", ui.getSkin(), "debug"));
+        table.add(new Label(sorts.toString(), ui.getSkin(), "debug"));
+
+        // ------------- PATH CACHE
+        PolygonalNavGraph navGraph = ui.getWorld().getCurrentScene().getPolygonalNavGraph();
+
+        table.row().pad(5).align(Align.left);
+        table.add(new Label("Path Cache: ", ui.getSkin(), "debug"));
+        table.add(new Label(navGraph.getCacheHits() + " hits, " + navGraph.getCacheMisses() + " misses", ui.getSkin(),
+                "debug"));
+
+        // ------------- FRAME STATS
+        final FrameStats stats = ui.getWorld().getFrameStats();
+        final Label statsLabel = new Label(stats.getSummary(), ui.getSkin(), "debug");
+
+        final TextButton statsRec = new TextButton(stats.isEnabled() ? "Stop" : "Record", ui.getSkin());
+        statsRec.addListener(new ClickListener() {
+
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                if (!stats.isEnabled())
+                    stats.clear();
+
+                stats.setEnabled(!stats.isEnabled());
+                statsRec.setText(stats.isEnabled() ? "Stop" : "Record");
+                statsLabel.setText(stats.getSummary());
+
+                if (stats.isEnabled())
+                    ui.setCurrentScreen(Screens.SCENE_SCREEN);
+            }
+        });
+
+        TextButton statsExport = new TextButton("Export CSV", ui.getSkin());
+        statsExport.addListener(new ClickListener() {
+
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                FileHandle file = EngineAssetManager.getInstance()
+                        .getUserFile("framestats-" + System.currentTimeMillis() + ".csv");
+
+                try {
+                    stats.exportCSV(file);
+                    statsLabel.setText(stats.getSummary() + "\nExported to " + file.path());
+                } catch (IOException e) {
+                    EngineLogger.error("Exporting frame stats.", e);
+                }
+            }
+        });
+
+        statsRec.pad(2, 3, 2, 3);
+        statsExport.pad(2, 3, 2, 3);
+
+        HorizontalGroup fsGroup = new HorizontalGroup();
+        fsGroup.space(10);
+        fsGroup.addActor(statsRec);
+        fsGroup.addActor(statsExport);
+        fsGroup.addActor(statsLabel);
+
+        table.row().pad(5).align(Align.left);
+        table.add(new Label("Frame Stats: ", ui.getSkin(), "debug"));
+        table.add(fsGroup);
+
         // ------------- RECORDING
 
         final Recorder r = ui.getRecorder();
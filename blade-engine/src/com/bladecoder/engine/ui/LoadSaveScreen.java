@@ -49,6 +49,7 @@ import com.bladecoder.engine.assets.EngineAssetManager;
 import com.bladecoder.engine.model.Text;
 import com.bladecoder.engine.model.TextManager;
 import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.serialization.AsyncSaver;
 import com.bladecoder.engine.serialization.WorldSerialization;
 import com.bladecoder.engine.ui.UI.Screens;
 import com.bladecoder.engine.ui.defaults.ScreenControllerHandler;
@@ -131,6 +132,9 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
         // loadScreenMode = ui.getScreen(Screens.LOAD_GAME_SCREEN) == this;
         loadScreenMode = world.getCurrentScene() == null;
 
+        // the slots of the saves in background must be listed
+        world.getSerializer().waitForSaves();
+
         stage = new Stage(new ScreenViewport());
 
         slotWidth = (int) (stage.getViewport().getWorldWidth() / (ROW_SLOTS + 1) - 2 * pad);
@@ -525,17 +529,17 @@ public class LoadSaveScreen extends ScreenAdapter implements BladeScreen {
             final World world = ui.getWorld();
             final String filename = event.getListenerActor().getName() + WorldSerialization.GAMESTATE_EXT;
 
-            try {
-                world.getSerializer().saveGameState(filename, true);
-
-                world.getCurrentScene().getTextManager().addText("@ui.gamesaved", TextManager.POS_SUBTITLE,
-                        TextManager.POS_SUBTITLE, false, Text.Type.UI, null, null, null, null, null, null);
-
-                ui.setCurrentScreen(Screens.SCENE_SCREEN);
+            // the screenshot is taken now and the files are written in background
+            world.getSerializer().saveGameStateAsync(filename, true, new AsyncSaver.SaveListener() {
+                @Override
+                public void saved(String f, IOException error) {
+                    if (error == null && !world.isDisposed())
+                        world.getCurrentScene().getTextManager().addText("@ui.gamesaved", TextManager.POS_SUBTITLE,
+                                TextManager.POS_SUBTITLE, false, Text.Type.UI, null, null, null, null, null, null);
+                }
+            });
 
-            } catch (IOException e) {
-                EngineLogger.error(e.getMessage());
-            }
+            ui.setCurrentScreen(Screens.SCENE_SCREEN);
         }
     };
 
@@ -42,6 +42,8 @@ public final class Config {
 	public static final String AUTO_HIDE_TEXTS = "auto_hide_texts";
 	public static final String RESOLUTIONS = "resolutions";
 	public static final String SHOW_HOTSPOTS = "show_hotspots";
+	public static final String ASYNC_PATHFINDING = "async_pathfinding";
+	public static final String BINARY_GAMESTATE_PROP = "binary_gamestate";
 
 	public static final String PROPERTIES_FILENAME = "BladeEngine.properties";
 	public static final String PREFS_FILENAME = "prefs.properties";
@@ -0,0 +1,318 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.bladecoder.engine.model.Scene;
+
+/**
+ * Records per frame rendering and timing counters to find why a scene is slow.
+ * 
+ * The counters are taken from the SpriteBatch, a GLProfiler and the scene
+ * culling. The last frames are kept in a ring buffer that can be exported as
+ * CSV.
+ * 
+ * When disabled, the begin/end methods do nothing.
+ * 
+ * @author rgarcia
+ */
+public class FrameStats {
+	public static final int DEFAULT_CAPACITY = 3600;
+
+	private static final String CSV_HEADER = "frame,scene,updateMs,drawMs,renderCalls,textureBinds,glDrawCalls,shaderSwitches,quads,flushesSaved,drawnActors,culledActors,gcCount,gcMs";
+
+	public static class Sample {
+		public long frame;
+		public String scene;
+		public float updateMs;
+		public float drawMs;
+		public int renderCalls;
+		public int textureBinds;
+		public int glDrawCalls;
+		public int shaderSwitches;
+		public int quads;
+		public int flushesSaved;
+		public int drawnActors;
+		public int culledActors;
+		public long gcCount;
+		public long gcMs;
+	}
+
+	private final Sample[] samples;
+	private int first = 0;
+	private int size = 0;
+
+	private boolean enabled = false;
+	private GLProfiler profiler;
+
+	private long updateStart;
+	private long drawStart;
+	private float updateMs;
+	private int batchRenderCalls;
+
+	private long lastGcCount;
+	private long lastGcMs;
+
+	public FrameStats() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public FrameStats(int capacity) {
+		samples = new Sample[capacity];
+
+		for (int i = 0; i < capacity; i++)
+			samples[i] = new Sample();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Starts or stops the recording. The GL calls are intercepted while enabled.
+	 */
+	public void setEnabled(boolean enabled) {
+		if (this.enabled == enabled)
+			return;
+
+		this.enabled = enabled;
+
+		if (enabled) {
+			if (profiler == null)
+				profiler = new GLProfiler(Gdx.graphics);
+
+			profiler.enable();
+			lastGcCount = GcCounter.getCount();
+			lastGcMs = GcCounter.getTime();
+		} else if (profiler != null) {
+			profiler.disable();
+		}
+
+		updateMs = 0;
+	}
+
+	public void clear() {
+		first = 0;
+		size = 0;
+	}
+
+	public void beginUpdate() {
+		if (!enabled)
+			return;
+
+		updateStart = TimeUtils.nanoTime();
+	}
+
+	public void endUpdate() {
+		if (!enabled)
+			return;
+
+		updateMs += (TimeUtils.nanoTime() - updateStart) / 1000000f;
+	}
+
+	public void beginDraw(SpriteBatch batch) {
+		if (!enabled)
+			return;
+
+		profiler.reset();
+		batchRenderCalls = batch.totalRenderCalls;
+		drawStart = TimeUtils.nanoTime();
+	}
+
+	/**
+	 * Records the frame. The update time is the sum of all the updates since the
+	 * previous draw.
+	 */
+	public void endDraw(SpriteBatch batch, Scene scene) {
+		if (!enabled)
+			return;
+
+		Sample s = next();
+
+		s.drawMs = (TimeUtils.nanoTime() - drawStart) / 1000000f;
+		s.updateMs = updateMs;
+		s.frame = Gdx.graphics.getFrameId();
+		s.scene = scene != null ? scene.getId() : "";
+		s.renderCalls = batch.totalRenderCalls - batchRenderCalls;
+		s.textureBinds = profiler.getTextureBindings();
+		s.glDrawCalls = profiler.getDrawCalls();
+		s.shaderSwitches = profiler.getShaderSwitches();
+		// the batches draw 6 indices for every quad
+		s.quads = (int) (profiler.getVertexCount().total / 6);
+		s.flushesSaved = scene != null ? scene.getFlushesSaved() : 0;
+		s.drawnActors = scene != null ? scene.getDrawnActors() : 0;
+		s.culledActors = scene != null ? scene.getCulledActors() : 0;
+
+		long gcCount = GcCounter.getCount();
+		long gcMs = GcCounter.getTime();
+		s.gcCount = gcCount - lastGcCount;
+		s.gcMs = gcMs - lastGcMs;
+		lastGcCount = gcCount;
+		lastGcMs = gcMs;
+
+		updateMs = 0;
+	}
+
+	private Sample next() {
+		int idx = (first + size) % samples.length;
+
+		if (size < samples.length)
+			size++;
+		else
+			first = (first + 1) % samples.length;
+
+		return samples[idx];
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @param i 0 is the oldest recorded frame.
+	 */
+	public Sample get(int i) {
+		return samples[(first + i) % samples.length];
+	}
+
+	/**
+	 * @return the last recorded frame or null if there is none.
+	 */
+	public Sample getLast() {
+		return size == 0 ? null : get(size - 1);
+	}
+
+	/**
+	 * @return averages and maximums of the recorded frames.
+	 */
+	public String getSummary() {
+		if (size == 0)
+			return enabled ? "Recording..." : "No frames recorded";
+
+		float update = 0, draw = 0, maxUpdate = 0, maxDraw = 0;
+		long renderCalls = 0, binds = 0, quads = 0, saved = 0, culled = 0, gcCount = 0;
+
+		for (int i = 0; i < size; i++) {
+			Sample s = get(i);
+
+			update += s.updateMs;
+			draw += s.drawMs;
+			maxUpdate = Math.max(maxUpdate, s.updateMs);
+			maxDraw = Math.max(maxDraw, s.drawMs);
+			renderCalls += s.renderCalls;
+			binds += s.textureBinds;
+			quads += s.quads;
+			saved += s.flushesSaved;
+			culled += s.culledActors;
+			gcCount += s.gcCount;
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append(size).append(" frames  Update: ").append(format(update / size)).append("ms (max ")
+				.append(format(maxUpdate)).append(")  Draw: ").append(format(draw / size)).append("ms (max ")
+				.append(format(maxDraw)).append(")\nRender Calls: ").append(renderCalls / size)
+				.append("  Texture Binds: ").append(binds / size).append("  Quads: ").append(quads / size)
+				.append("  Flushes Saved: ").append(saved / size)
+				.append("  Culled: ").append(culled / size).append("  GCs: ").append(gcCount);
+
+		return sb.toString();
+	}
+
+	/**
+	 * Writes the recorded frames as CSV, from the oldest to the newest.
+	 */
+	public void exportCSV(FileHandle file) throws IOException {
+		Writer w = file.writer(false, "UTF-8");
+
+		try {
+			w.write(CSV_HEADER);
+			w.write('\n');
+
+			StringBuilder sb = new StringBuilder();
+
+			for (int i = 0; i < size; i++) {
+				Sample s = get(i);
+
+				sb.setLength(0);
+				sb.append(s.frame).append(',').append(s.scene).append(',').append(s.updateMs).append(',')
+						.append(s.drawMs).append(',').append(s.renderCalls).append(',').append(s.textureBinds)
+						.append(',').append(s.glDrawCalls).append(',').append(s.shaderSwitches).append(',')
+						.append(s.quads).append(',').append(s.flushesSaved).append(',').append(s.drawnActors).append(',').append(s.culledActors)
+						.append(',').append(s.gcCount).append(',').append(s.gcMs).append('\n');
+
+				w.write(sb.toString());
+			}
+		} finally {
+			w.close();
+		}
+	}
+
+	private static String format(float v) {
+		return Float.toString(Math.round(v * 100) / 100f);
+	}
+
+	/**
+	 * The GC counters are not available in all the platforms (Android). It is in
+	 * its own class to not load the management classes when not available.
+	 */
+	private static class GcCounter {
+		private static boolean available = true;
+
+		static long getCount() {
+			if (!available)
+				return 0;
+
+			try {
+				long count = 0;
+
+				for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+					count += Math.max(0, gc.getCollectionCount());
+
+				return count;
+			} catch (Throwable t) {
+				available = false;
+				return 0;
+			}
+		}
+
+		static long getTime() {
+			if (!available)
+				return 0;
+
+			try {
+				long time = 0;
+
+				for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+					time += Math.max(0, gc.getCollectionTime());
+
+				return time;
+			} catch (Throwable t) {
+				available = false;
+				return 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+import com.badlogic.gdx.graphics.GL20;
+
+/**
+ * A GL20 implementation that does nothing. Allows to create the textures,
+ * fonts and shaders of a game when there is no GL context, like in the
+ * headless backend.
+ * 
+ * The gen/create methods return increasing handles and the shaders always
+ * compile.
+ * 
+ * @author rgarcia
+ */
+public class NullGL {
+	private static final int MAX_TEXTURE_SIZE = 4096;
+
+	private NullGL() {
+	}
+
+	public static GL20 create() {
+		return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class },
+				new InvocationHandler() {
+					private int lastHandle;
+
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if (method.getDeclaringClass() == Object.class)
+							return method.invoke(this, args);
+
+						String name = method.getName();
+						Class<?> type = method.getReturnType();
+
+						if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+							// compile and link status
+							((IntBuffer) args[2]).put(0, 1);
+						} else if (name.equals("glGetIntegerv") && (Integer) args[0] == GL20.GL_MAX_TEXTURE_SIZE) {
+							((IntBuffer) args[1]).put(0, MAX_TEXTURE_SIZE);
+						}
+
+						if (type == int.class) {
+							return name.startsWith("glGen") || name.startsWith("glCreate") ? ++lastHandle : 0;
+						} else if (type == boolean.class) {
+							return false;
+						} else if (type == float.class) {
+							return 0f;
+						} else if (type == String.class) {
+							return "";
+						}
+
+						return null;
+					}
+				});
+	}
+}
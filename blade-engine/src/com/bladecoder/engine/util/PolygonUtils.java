@@ -233,6 +233,18 @@ public class PolygonUtils {
 		return inside;
 	}
 
+	/**
+	 * Checks if the point is in the segment with the same tolerance used in
+	 * isPointInside().
+	 */
+	public static boolean isPointInSegment(float ax, float ay, float bx, float by, float x, float y) {
+		float aSqDist = Vector2.dst2(ax, ay, x, y);
+		float bSqDist = Vector2.dst2(bx, by, x, y);
+
+		return aSqDist + bSqDist + 2.0f * Math.sqrt(aSqDist * bSqDist)
+				- Vector2.dst2(ax, ay, bx, by) < TOLERANCE_IS_POINT_INSIDE;
+	}
+
 	public static boolean inLineOfSight(Vector2 p1, Vector2 p2, Polygon polygon, boolean obstacle) {
 		tmp.set(p1);
 		tmp2.set(p2);
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright 2014 Rafael Garcia Moreno.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+package com.bladecoder.engine.util;
+
+import com.bladecoder.engine.assets.EngineAssetManager;
+import com.bladecoder.engine.model.World;
+import com.bladecoder.engine.model.World.AssetState;
+
+/**
+ * Runs the world logic with a fixed timestep and without drawing, as fast as
+ * the CPU allows. Used to run the verbs, tweens and walks of a game without a
+ * window, for soak tests or automated playthroughs driven by a bot.
+ * 
+ * The assets are loaded synchronously when the world asks for them, so the
+ * simulated time doesn't depend on the loading time. For repeatable runs, the
+ * 'async_pathfinding' property must be disabled.
+ * 
+ * @author rgarcia
+ */
+public class WorldSimulator {
+	public static final float DEFAULT_STEP = 1f / 60f;
+
+	public interface Condition {
+		boolean isMet(World w);
+	}
+
+	public interface StepListener {
+		void step(World w, float delta);
+	}
+
+	private final World world;
+	private final float step;
+
+	private StepListener listener;
+
+	private long frames;
+	private float simulatedTime;
+	private long elapsedNanos;
+
+	public WorldSimulator(World world) {
+		this(world, DEFAULT_STEP);
+	}
+
+	public WorldSimulator(World world, float step) {
+		if (step <= 0)
+			throw new IllegalArgumentException("The step must be greater than 0: " + step);
+
+		this.world = world;
+		this.step = step;
+	}
+
+	/**
+	 * The listener is called after the world in every step. Use it to play the
+	 * game, for example with the TesterBot.
+	 */
+	public void setStepListener(StepListener l) {
+		listener = l;
+	}
+
+	public StepListener getStepListener() {
+		return listener;
+	}
+
+	/**
+	 * Advances the world one step.
+	 */
+	public void step() {
+		long t0 = System.nanoTime();
+
+		if (world.getAssetState() != AssetState.LOADED) {
+			// Like the scene screen does, but waiting until all is loaded
+			EngineAssetManager.getInstance().finishLoading();
+
+			// update(0) to retrieve the assets and exec the init verb
+			world.update(0);
+
+			if (world.getAssetState() == AssetState.LOADED)
+				world.resize(world.getWidth(), world.getHeight());
+		} else {
+			world.update(step);
+
+			if (listener != null && !world.isDisposed())
+				listener.step(world, step);
+
+			simulatedTime += step;
+		}
+
+		frames++;
+		elapsedNanos += System.nanoTime() - t0;
+	}
+
+	/**
+	 * Runs the world during the specified simulated time.
+	 * 
+	 * @return the steps executed
+	 */
+	public long run(float seconds) {
+		return runUntil(null, seconds);
+	}
+
+	/**
+	 * Runs the world until the condition is met or the specified simulated time
+	 * has elapsed.
+	 * 
+	 * @param condition checked after every step. Can be null.
+	 * @return the steps executed
+	 */
+	public long runUntil(Condition condition, float maxSeconds) {
+		long f0 = frames;
+		float end = simulatedTime + maxSeconds;
+
+		while (simulatedTime < end && !world.isDisposed()) {
+			step();
+
+			if (condition != null && condition.isMet(world))
+				break;
+		}
+
+		return frames - f0;
+	}
+
+	public float getStep() {
+		return step;
+	}
+
+	public long getFrames() {
+		return frames;
+	}
+
+	public float getSimulatedTime() {
+		return simulatedTime;
+	}
+
+	/**
+	 * @return the real time spent in the steps in seconds.
+	 */
+	public float getElapsedTime() {
+		return elapsedNanos / 1000000000f;
+	}
+
+	/**
+	 * @return how many times faster than real time the world has been simulated.
+	 */
+	public float getSpeedUp() {
+		return elapsedNanos == 0 ? 0 : getSimulatedTime() / getElapsedTime();
+	}
+
+	public String getSummary() {
+		return String.format("Frames: %d  Simulated: %.1fs  Elapsed: %.2fs  Speed up: %.0fx  Step: %.4fs", frames,
+				simulatedTime, getElapsedTime(), getSpeedUp(), step);
+	}
+}